@@ -0,0 +1,67 @@
+package com.Soardev.blockblast;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Debug;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Steady-state frames must not allocate: draws every screen of a laid-out
+ * GameView into an offscreen canvas and counts what the drawing thread
+ * allocates once caches and layers are warm.
+ *
+ *   ./gradlew :app:connectedDebugAndroidTest
+ */
+@RunWith(AndroidJUnit4.class)
+public class FrameAllocationTest {
+
+    private static final int WIDTH = 1080, HEIGHT = 2340;
+    private static final int WARMUP_FRAMES = 30;
+    private static final int FRAMES = 120;
+    // Objects allowed over FRAMES frames of one screen
+    private static final int BUDGET = 0;
+
+    @Test
+    public void everyScreenDrawsWithoutAllocating() {
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        Context context = instrumentation.getTargetContext();
+        StringBuilder report = new StringBuilder();
+        StringBuilder failures = new StringBuilder();
+        // Views are built and drawn on the main thread, and the counts are per thread
+        instrumentation.runOnMainSync(() -> {
+            GameView view = new GameView(context);
+            view.layout(0, 0, WIDTH, HEIGHT);
+            Bitmap target = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(target);
+            try {
+                view.startLevelForTest(0);
+                for (GameView.GameState state : GameView.GameState.values()) {
+                    view.showStateForTest(state);
+                    for (int i = 0; i < WARMUP_FRAMES; i++) view.drawFrameForTest(canvas);
+                    Debug.resetThreadAllocCount();
+                    Debug.startAllocCounting();
+                    for (int i = 0; i < FRAMES; i++) view.drawFrameForTest(canvas);
+                    Debug.stopAllocCounting();
+                    int count = Debug.getThreadAllocCount();
+                    report.append(' ').append(state).append('=').append(count)
+                            .append(" (").append(Debug.getThreadAllocSize()).append(" B)");
+                    if (count > BUDGET) failures.append(' ').append(state).append('=').append(count);
+                }
+            } finally {
+                target.recycle();
+                view.release();
+            }
+        });
+        assertTrue("Over the budget of " + BUDGET + " objects in " + FRAMES + " frames:" + failures
+                + "\nAll screens:" + report, failures.length() == 0);
+    }
+}
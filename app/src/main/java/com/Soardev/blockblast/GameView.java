@@ -2,22 +2,25 @@ package com.Soardev.blockblast;
 
 import android.app.Activity;
 import android.content.Context;
-import android.content.SharedPreferences;
+import android.content.res.AssetFileDescriptor;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.LinearGradient;
 import android.graphics.Paint;
 import android.graphics.Path;
-import android.graphics.Point;
 import android.graphics.RectF;
 import android.graphics.Shader;
 import android.media.AudioAttributes;
 import android.media.SoundPool;
 import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
 import android.os.VibrationEffect;
 import android.os.Vibrator;
 import android.util.Log;
+import android.view.Choreographer;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
@@ -27,34 +30,72 @@ import com.google.android.gms.ads.FullScreenContentCallback;
 import com.google.android.gms.ads.LoadAdError;
 import com.google.android.gms.ads.rewarded.RewardedAd;
 import com.google.android.gms.ads.rewarded.RewardedAdLoadCallback;
-
+import com.Soardev.blockblast.core.Board;
+import com.Soardev.blockblast.core.CheckpointStore;
+import com.Soardev.blockblast.core.DailyChallenge;
+import com.Soardev.blockblast.core.FastRandom;
+import com.Soardev.blockblast.core.GameSession;
+import com.Soardev.blockblast.core.HintSolver;
+import com.Soardev.blockblast.core.LevelCatalog;
+import com.Soardev.blockblast.core.PlacementPolicy;
+import com.Soardev.blockblast.core.ReplayRecorder;
+import com.Soardev.blockblast.core.ShapeType;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-public class GameView extends SurfaceView implements Runnable {
+public class GameView extends SurfaceView implements Choreographer.FrameCallback {
 
     private static final String TAG = "GameView";
     
     // --- ENUMS ---
-    private enum GameState { MENU, LEVEL_SELECT, PLAYING, GAME_OVER, LEVEL_COMPLETE, DAILY_WIN, SETTINGS, THEMES, SHOP, COMBO_INFO }
+    enum GameState { MENU, LEVEL_SELECT, PLAYING, GAME_OVER, LEVEL_COMPLETE, DAILY_WIN, SETTINGS, THEMES, SHOP, COMBO_INFO }
     private enum Theme { CLASSIC, WOOD, NEON, JIGSAW }
     
     private GameState currentState = GameState.MENU;
     private Theme currentTheme = Theme.CLASSIC;
 
     // --- System ---
-    private Thread gameThread;
-    private boolean isPlaying;
+    // Frames run on this looper thread, one per display vsync (see doFrame)
+    private HandlerThread renderThread;
+    private Choreographer choreographer;
+    private volatile boolean isPlaying;
+    private volatile Handler renderHandler;
+    // Frames are drawn on demand: input, state changes and running animations request them
+    private final AtomicBoolean frameRequested = new AtomicBoolean();
+    private final Runnable postFrame = () -> { if (isPlaying) choreographer.postFrameCallback(this); };
+    // False after an idle stretch, so the first frame back does not count the idle time as a step
+    private boolean animatingLastFrame;
+    private long lastFrameNanos;
+    // Animation speeds are per 60 Hz frame; update() scales them by the measured frame time
+    private static final float NOMINAL_FRAME_NANOS = 1_000_000_000f / 60;
+    // After a stall (GC, resize, app switch) animations jump ahead at most this many 60 Hz frames
+    private static final float MAX_FRAME_STEPS = 4;
     private SurfaceHolder surfaceHolder;
     private Paint paint;
     private Vibrator vibrator;
-    private SharedPreferences prefs;
+    // Coins, unlocks and settings; writes are batched onto ioExecutor
+    private PlayerData playerData;
     private MainActivity mainActivity;
+    // File writes that must stay off the touch and render threads. Shut down in release(); a write
+    // arriving after that (say, a late ad callback) is dropped rather than thrown on the caller
+    private final ScheduledExecutorService ioExecutor = new ScheduledThreadPoolExecutor(1, new ThreadPoolExecutor.DiscardPolicy());
+    // Last finished run, for bug reports; check with Replayer.verify()
+    private static final String REPLAY_FILE = "last_game.bbr";
+    // The run in progress, rewritten after every move and restored on cold start
+    private static final String CHECKPOINT_FILE = "session.bbs";
+    private final CheckpointStore checkpoint;
     
     // --- AdMob ---
     private RewardedAd rewardedAd;
@@ -72,60 +113,116 @@ public class GameView extends SurfaceView implements Runnable {
     private boolean soundEnabled = true;
 
     // --- Dimensions ---
-    private static final int GRID_SIZE = 8;
+    private static final int GRID_SIZE = Board.SIZE;
     private float CELL_SIZE, MARGIN_X, MARGIN_Y, BOTTOM_AREA_Y;
     private float SCREEN_W, SCREEN_H;
 
     // --- Game Data ---
-    private int[][] grid = new int[GRID_SIZE][GRID_SIZE];
-    private List<Shape> availableShapes = new ArrayList<>();
+    // Rules live in GameSession; the view only mirrors the tray for layout and dragging
+    private final GameSession session;
+    // One reusable handle per tray slot; type == null once the piece is used
+    private final Shape[] trayShapes = new Shape[GameSession.TRAY_SIZE];
     private Shape draggingShape = null;
-    private int score = 0;
     private int highScore = 0;
-    private int comboCount = 0;
     private int coins = 0;
+    // Bought in the shop; the first undo after a move is free, each further step back costs one
+    private int undoCharges = 0;
     private boolean themeWoodUnlocked = false;
     private boolean themeNeonUnlocked = false;
     private boolean themeJigsawUnlocked = false;
     
-    // --- Undo/Skip System ---
-    private int[][] previousGrid = new int[GRID_SIZE][GRID_SIZE];
-    private List<Shape> previousShapes = new ArrayList<>();
-    private int previousScore = 0;
-    private boolean canUndo = false;
-    
     // --- Level & Daily System ---
-    private int currentLevel = 1; // 0 = Classic, -1 = Daily
     private int maxUnlockedLevel = 1;
-    private int targetScore = 0;
     private int levelPage = 0;
     private final int LEVELS_PER_PAGE = 20;
     private boolean isDailyCompleted = false;
     private String dailyDateString = "";
+    private long dailyEpochDay;
+    // Searched or read from the cache on dailyExecutor at startup; null until then, and the Daily button waits for it
+    private volatile DailyChallenge todaysDaily;
+    // A cold search is about 100 ms on a desktop JVM and several times that on a low-end phone
+    // (bounded by DailyChallenge.MAX_TOTAL_MOVES), so it stays off ioExecutor and out of the way of checkpoint writes
+    private final ExecutorService dailyExecutor = Executors.newSingleThreadExecutor();
+    private File dailyCacheDir;
 
     // --- UI Rects ---
     private RectF btnPlayClassic, btnPlayLevels, btnDailyChallenge;
     private RectF btnNextPage, btnPrevPage, btnBackToMenu;
     private RectF btnRevive, btnRestart, btnNextLevel;
     private RectF btnSettings, btnBackHome, btnSoundToggle;
-    private RectF btnUndo, btnSkip;
+    // The game screen's own back button: the overlays drawn over it move btnBackHome
+    private RectF btnGameHome, btnUndo, btnRedo, btnSkip, btnHint;
     private RectF btnThemes, btnShop, btnComboInfo;
     private RectF btnThemeClassic, btnThemeWood, btnThemeNeon, btnThemeJigsaw;
     private RectF btnBuyUndo, btnBuySkip, btnBuyRevive, btnWatchAd;
     private List<RectF> levelButtons = new ArrayList<>();
+    // Alternatives the draw methods switch the shared fields above between
+    private RectF rectRedo, rectBack, rectLevelSelectMenu, rectGiveUp, rectTryAgain, rectDailyMenu;
+    private float layoutW, layoutH;
+
+    // --- Labels ---
+    // Rebuilt only when their value changes, so steady frames build no strings
+    private final IntLabel coinsLabel = new IntLabel("💰 ", " COINS");
+    private final IntLabel highScoreLabel = new IntLabel("🏆 HIGH SCORE: ", "");
+    private final IntLabel scoreLabel = new IntLabel("", "");
+    private final IntLabel comboLabel = new IntLabel("COMBO x", "");
+    private final IntLabel undoChargesLabel = new IntLabel("×", "");
+    private final IntLabel buyUndoLabel = new IntLabel("🔄 EXTRA UNDO (50💰) ×", "");
+    private final IntLabel coinRewardLabel = new IntLabel("💰 +", " COINS!");
+    private final String[] levelLabels = new String[GameSession.MAX_LEVEL + 1];
+    private String modeLabel;
+    private int modeLabelLevel = -1, modeLabelTarget = -1;
 
     // --- Juice ---
-    private List<Particle> particles = new ArrayList<>();
-    private List<FloatingText> floatingTexts = new ArrayList<>();
+    private final ParticlePool particles = new ParticlePool();
+    private static final int PARTICLES_PER_CELL = 8;
+    // Added on the UI thread (touch, ad and hint callbacks), updated and drawn on the render thread:
+    // every access holds the list's lock, as ParticlePool does
+    private final List<FloatingText> floatingTexts = new ArrayList<>();
     private float shakeIntensity = 0;
+    // Shake is drawn on the game thread; particles are spawned from touch handling
+    private final FastRandom shakeRandom;
     private float dragOffsetX, dragOffsetY, originalShapeX, originalShapeY;
     private float originalShapeScale = 0.6f;
-    private Map<Integer, Bitmap> blockSprites = new HashMap<>();
-    private boolean hasRevived = false;
+    // Indexed like PALETTE: 1..9 = SHAPE_COLORS, GARBAGE_INDEX = garbage
+    private Bitmap[] blockSprites;
+    private final RectF cellRect = new RectF();
+
+    // --- Game Screen Layers ---
+    // Full-screen, drawn on the game thread; see drawGame
+    private Bitmap chromeLayer, boardLayer;
+    private Canvas boardCanvas;
+    // Set by anything that changes the board, tray, HUD or sprites
+    private volatile boolean boardLayerDirty = true;
+
+    // --- Hint ---
+    // The search runs on its own thread so a slow position can never stall a frame
+    private final ExecutorService hintExecutor = Executors.newSingleThreadExecutor();
+    private final HintSolver hintSolver = new HintSolver();
+    private final HintSolver.Hint hint = new HintSolver.Hint();
+    private volatile int hintMove = PlacementPolicy.NO_MOVE;
+    // Bumped whenever the board or tray changes, so a late result is dropped
+    private volatile int hintVersion = 0;
 
     // --- Colors ---
     private final int COLOR_BG = Color.parseColor("#121212");
     private final int COLOR_GRID = Color.parseColor("#252525");
+    // Parsed once: parseColor allocates, and the screens below are drawn every frame
+    private final int COLOR_GOLD = Color.parseColor("#FFD740");
+    private final int COLOR_GREEN = Color.parseColor("#00E676");
+    private final int COLOR_MINT = Color.parseColor("#69F0AE");
+    private final int COLOR_BLUE = Color.parseColor("#448AFF");
+    private final int COLOR_SKY = Color.parseColor("#2196F3");
+    private final int COLOR_CYAN = Color.parseColor("#00E5FF");
+    private final int COLOR_ORANGE = Color.parseColor("#FF9800");
+    private final int COLOR_CORAL = Color.parseColor("#FF5252");
+    private final int COLOR_RED = Color.parseColor("#F44336");
+    private final int COLOR_MAGENTA = Color.parseColor("#E040FB");
+    private final int COLOR_PURPLE = Color.parseColor("#9C27B0");
+    private final int COLOR_BROWN = Color.parseColor("#795548");
+    private final int COLOR_WOOD = Color.parseColor("#8D6E63");
+    private final int COLOR_SLATE = Color.parseColor("#607D8B");
+    private final int COLOR_AD_GREEN = Color.parseColor("#4CAF50");
     private final int[] SHAPE_COLORS = {
             Color.parseColor("#FF1744"), // Vibrant Red
             Color.parseColor("#2979FF"), // Vibrant Blue
@@ -137,31 +234,94 @@ public class GameView extends SurfaceView implements Runnable {
             Color.parseColor("#FF4081"), // Vibrant Pink
             Color.parseColor("#76FF03")  // Vibrant Lime
     };
+    // Board color plane index -> color. 0 = empty, 1..9 = SHAPE_COLORS, then garbage.
+    private final int GARBAGE_INDEX = SHAPE_COLORS.length + 1;
+    private final int[] PALETTE = new int[GARBAGE_INDEX + 1];
+
+    // --- Text Styles ---
+    // Each has its own Paint and keeps its last few strings rasterized (size, color, bold, strings kept)
+    private final TextCache textCache = new TextCache();
+    private final TextCache.Style styleLogo = new TextCache.Style(120, Color.WHITE, true, 1);
+    private final TextCache.Style styleLogoGold = new TextCache.Style(120, COLOR_GOLD, true, 1);
+    private final TextCache.Style styleMenuCoins = new TextCache.Style(50, COLOR_GOLD, false, 2);
+    private final TextCache.Style styleHighScore = new TextCache.Style(45, COLOR_MINT, false, 2);
+    private final TextCache.Style styleTitle = new TextCache.Style(100, Color.WHITE, true, 8);
+    private final TextCache.Style styleButton = new TextCache.Style(50, Color.WHITE, false, 24);
+    private final TextCache.Style styleIcon = new TextCache.Style(60, Color.WHITE, false, 4);
+    private final TextCache.Style styleIconLabel = new TextCache.Style(28, Color.WHITE, false, 4);
+    private final TextCache.Style styleLevel = new TextCache.Style(40, Color.WHITE, false, LEVELS_PER_PAGE + 1);
+    private final TextCache.Style styleScore = new TextCache.Style(120, Color.WHITE, false, 2);
+    private final TextCache.Style styleCombo = new TextCache.Style(60, COLOR_GOLD, false, 2);
+    private final TextCache.Style styleMode = new TextCache.Style(50, Color.GRAY, false, 2);
+    private final TextCache.Style styleUndoCharges = new TextCache.Style(35, COLOR_GOLD, false, 2);
+    private final TextCache.Style styleReward = new TextCache.Style(70, COLOR_GOLD, false, 2);
+    private final TextCache.Style styleScreenCoins = new TextCache.Style(35, COLOR_GOLD, false, 2);
+    private final TextCache.Style styleFloating = new TextCache.Style(80, Color.WHITE, true, 8);
+    private final TextCache.Style styleHeading = new TextCache.Style(80, Color.WHITE, false, 2);
+    private final TextCache.Style styleGlyph = new TextCache.Style(70, Color.WHITE, false, 2);
+    private final TextCache.Style styleSmallButton = new TextCache.Style(45, Color.WHITE, false, 6);
+    private final TextCache.Style styleSmallButtonOff = new TextCache.Style(45, Color.GRAY, false, 2);
+    private final TextCache.Style styleCaption = new TextCache.Style(35, Color.WHITE, false, 6);
+    private final TextCache.Style styleSubheading = new TextCache.Style(60, Color.WHITE, false, 1);
+    private final TextCache.Style styleNotice = new TextCache.Style(50, Color.YELLOW, false, 1);
+    private final TextCache.Style styleDivider = new TextCache.Style(50, Color.WHITE, false, 1);
+    private final TextCache.Style styleBody = new TextCache.Style(40, Color.WHITE, false, 2);
+    private final TextCache.Style styleBodyDim = new TextCache.Style(40, Color.LTGRAY, false, 1);
+    private final TextCache.Style styleAdNote = new TextCache.Style(32, COLOR_MINT, false, 1);
+    private final TextCache.Style styleTip = new TextCache.Style(38, COLOR_MINT, false, 1);
+    // Combo info rows, 2 lines up to 5+
+    private final TextCache.Style[] styleComboTiers = {
+        new TextCache.Style(45, COLOR_GOLD, false, 1),
+        new TextCache.Style(45, COLOR_ORANGE, false, 1),
+        new TextCache.Style(45, COLOR_CORAL, false, 1),
+        new TextCache.Style(45, COLOR_MAGENTA, false, 1)
+    };
 
     public GameView(Context context) {
         super(context);
+        session = new GameSession(SHAPE_COLORS.length);
+        session.setDealMode(GameSession.DealMode.FAIR);
+        shakeRandom = session.getCosmeticRandom().split();
+        session.setRecorder(new ReplayRecorder());
+        checkpoint = new CheckpointStore(new File(context.getFilesDir(), CHECKPOINT_FILE), ioExecutor);
+        System.arraycopy(SHAPE_COLORS, 0, PALETTE, 1, SHAPE_COLORS.length);
+        PALETTE[GARBAGE_INDEX] = Color.DKGRAY;
+        blockSprites = new Bitmap[PALETTE.length];
+        for (int i = 0; i < trayShapes.length; i++) trayShapes[i] = new Shape(i);
         try {
             surfaceHolder = getHolder();
+            // Frames are only drawn on request, so a new or resized surface has to ask for one
+            surfaceHolder.addCallback(new SurfaceHolder.Callback() {
+                @Override public void surfaceCreated(SurfaceHolder holder) { requestRender(); }
+                @Override public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) { requestRender(); }
+                @Override public void surfaceDestroyed(SurfaceHolder holder) {}
+            });
             paint = new Paint();
             paint.setAntiAlias(true);
             vibrator = (Vibrator) context.getSystemService(Context.VIBRATOR_SERVICE);
-            prefs = context.getSharedPreferences("BlockBlastData", Context.MODE_PRIVATE);
+            playerData = new PlayerData(context.getSharedPreferences("BlockBlastData", Context.MODE_PRIVATE), ioExecutor);
+            session.setLevelCatalog(loadLevelCatalog(context));
             
-            highScore = prefs.getInt("HIGH_SCORE", 0);
-            maxUnlockedLevel = prefs.getInt("MAX_LEVEL", 1);
-            soundEnabled = prefs.getBoolean("SOUND_ENABLED", true);
-            coins = prefs.getInt("COINS", 0);
-            themeWoodUnlocked = prefs.getBoolean("THEME_WOOD", false);
-            themeNeonUnlocked = prefs.getBoolean("THEME_NEON", false);
-            themeJigsawUnlocked = prefs.getBoolean("THEME_JIGSAW", false);
+            highScore = playerData.getInt("HIGH_SCORE", 0);
+            maxUnlockedLevel = playerData.getInt("MAX_LEVEL", 1);
+            soundEnabled = playerData.getBoolean("SOUND_ENABLED", true);
+            coins = playerData.getInt("COINS", 0);
+            undoCharges = playerData.getInt("UNDO_CHARGES", 0);
+            themeWoodUnlocked = playerData.getBoolean("THEME_WOOD", false);
+            themeNeonUnlocked = playerData.getBoolean("THEME_NEON", false);
+            themeJigsawUnlocked = playerData.getBoolean("THEME_JIGSAW", false);
             
             // Check Daily Status
             Calendar cal = Calendar.getInstance();
             dailyDateString = cal.get(Calendar.YEAR) + "-" + cal.get(Calendar.DAY_OF_YEAR);
-            String lastDaily = prefs.getString("LAST_DAILY_WIN", "");
+            String lastDaily = playerData.getString("LAST_DAILY_WIN", "");
             isDailyCompleted = lastDaily.equals(dailyDateString);
+            dailyEpochDay = DailyChallenge.epochDay(cal.get(Calendar.YEAR), cal.get(Calendar.MONTH) + 1, cal.get(Calendar.DAY_OF_MONTH));
+            dailyCacheDir = new File(context.getCacheDir(), "daily");
+            dailyExecutor.execute(this::prepareDaily);
 
             initAudio(context);
+            resumeSavedRun();
         } catch (Exception e) {
             Log.e(TAG, "Constructor error: " + e.getMessage());
         }
@@ -202,6 +362,7 @@ public class GameView extends SurfaceView implements Runnable {
                                     rewardedAd = ad;
                                     isRewardedAdLoaded = true;
                                     rewardedAdRetryCount = 0;
+                                    requestRender(); // Revive and shop buttons change
                                     Log.d(TAG, "Rewarded ad loaded successfully");
 
                                     // Set FullScreenContentCallback
@@ -211,6 +372,7 @@ public class GameView extends SurfaceView implements Runnable {
                                             Log.d(TAG, "Rewarded ad dismissed");
                                             rewardedAd = null;
                                             isRewardedAdLoaded = false;
+                                            requestRender();
                                             loadRewardedAd(); // Load next ad
                                         }
 
@@ -219,6 +381,7 @@ public class GameView extends SurfaceView implements Runnable {
                                             Log.e(TAG, "Rewarded ad failed to show: " + adError.getMessage());
                                             rewardedAd = null;
                                             isRewardedAdLoaded = false;
+                                            requestRender();
                                             loadRewardedAd(); // Try loading another
                                         }
 
@@ -238,12 +401,12 @@ public class GameView extends SurfaceView implements Runnable {
                                                     rewardedAd.show(mainActivity, rewardItem -> {
                                                         int rewardAmount = 20;
                                                         coins += rewardAmount;
-                                                        prefs.edit().putInt("COINS", coins).apply();
+                                                        playerData.putInt("COINS", coins);
                                                         playSound(soundClear);
                                                         vibrate(200);
                                                         pendingRewardForCoins = false;
                                                         Log.d(TAG, "✅ Pending rewarded ad watched! Earned " + rewardAmount + " coins. Total: " + coins);
-                                                        floatingTexts.add(new FloatingText("💰 +" + rewardAmount + " COINS!", SCREEN_W/2, SCREEN_H/2));
+                                                        addFloatingText("💰 +" + rewardAmount + " COINS!", SCREEN_W/2, SCREEN_H/2);
                                                     });
                                                 } catch (Exception e) {
                                                     Log.e(TAG, "Error showing pending rewarded ad: " + e.getMessage());
@@ -262,6 +425,7 @@ public class GameView extends SurfaceView implements Runnable {
                                     rewardedAd = null;
                                     isRewardedAdLoaded = false;
                                     rewardedAdRetryCount++;
+                                    requestRender();
                                     Log.e(TAG, "Rewarded ad failed to load: " + loadAdError.getMessage() + " (Code: " + loadAdError.getCode() + ")");
 
                                     // If user requested an ad, try a few retries then give up with feedback
@@ -275,7 +439,7 @@ public class GameView extends SurfaceView implements Runnable {
                                         // Give up and notify user
                                         pendingRewardForCoins = false;
                                         Log.d(TAG, "Failed to load rewarded ad after retries, notifying user");
-                                        floatingTexts.add(new FloatingText("❌ Ad failed to load", SCREEN_W/2, SCREEN_H/2));
+                                        addFloatingText("❌ Ad failed to load", SCREEN_W/2, SCREEN_H/2);
                                     }
                                 }
                             });
@@ -314,29 +478,70 @@ public class GameView extends SurfaceView implements Runnable {
         }
     }
 
+    // Called by Choreographer on the render thread at a vsync, so the frame rate follows the
+    // panel (60/90/120 Hz). If a frame overruns, Choreographer skips the missed vsyncs and the next
+    // frame's time step covers them, so motion keeps its real-time speed instead of slowing down.
+    // While something animates the next frame is requested right away; otherwise the thread parks
+    // in its looper until requestRender().
     @Override
-    public void run() {
-        while (isPlaying) {
-            update();
-            draw();
-            control();
+    public void doFrame(long frameTimeNanos) {
+        // Cleared first, so a request made during this frame gets a frame of its own
+        frameRequested.set(false);
+        if (!isPlaying) return;
+        float steps = animatingLastFrame ? (frameTimeNanos - lastFrameNanos) / NOMINAL_FRAME_NANOS : 1;
+        lastFrameNanos = frameTimeNanos;
+        update(Math.max(0, Math.min(steps, MAX_FRAME_STEPS)));
+        draw();
+        animatingLastFrame = isAnimating();
+        if (animatingLastFrame) requestRender();
+    }
+
+    // Any thread: draws a frame at the next vsync; requests made before it runs are merged
+    public void requestRender() {
+        Handler handler = renderHandler;
+        if (handler != null && frameRequested.compareAndSet(false, true)) handler.post(postFrame);
+    }
+
+    // Anything that moves without input
+    private boolean isAnimating() {
+        if (!particles.isEmpty() || hasFloatingTexts() || shakeIntensity > 0) return true;
+        if (draggingShape != null) return true;
+        return currentState == GameState.PLAYING && hintMove != PlacementPolicy.NO_MOVE; // Pulsing hint
+    }
+
+    private void addFloatingText(String text, float x, float y) {
+        synchronized (floatingTexts) {
+            floatingTexts.add(new FloatingText(text, x, y));
+        }
+        requestRender();
+    }
+
+    private boolean hasFloatingTexts() {
+        synchronized (floatingTexts) {
+            return !floatingTexts.isEmpty();
         }
     }
 
-    private void update() {
-        Iterator<Particle> pIt = particles.iterator();
-        while (pIt.hasNext()) {
-            Particle p = pIt.next();
-            p.update();
-            if (p.alpha <= 0) pIt.remove();
+    private void clearFloatingTexts() {
+        synchronized (floatingTexts) {
+            floatingTexts.clear();
+        }
+    }
+
+    // steps = elapsed time in 60 Hz frames. Indexed loops: an iterator per list per frame is garbage too
+    private void update(float steps) {
+        particles.update(steps);
+        synchronized (floatingTexts) {
+            for (int i = floatingTexts.size() - 1; i >= 0; i--) {
+                FloatingText t = floatingTexts.get(i);
+                t.update(steps);
+                if (t.alpha <= 0) floatingTexts.remove(i);
+            }
         }
-        Iterator<FloatingText> tIt = floatingTexts.iterator();
-        while (tIt.hasNext()) {
-            FloatingText t = tIt.next();
-            t.update();
-            if (t.alpha <= 0) tIt.remove();
+        if (shakeIntensity > 0) {
+            shakeIntensity *= (float) Math.pow(0.9, steps);
+            if (shakeIntensity < 0.5f) shakeIntensity = 0; // Below a pixel: stop, so frames can stop too
         }
-        if (shakeIntensity > 0) shakeIntensity *= 0.9f;
     }
 
     private void draw() {
@@ -345,32 +550,7 @@ public class GameView extends SurfaceView implements Runnable {
             try {
                 canvas = surfaceHolder.lockCanvas();
                 if (canvas == null) return;
-                
-                SCREEN_W = getWidth();
-                SCREEN_H = getHeight();
-                
-                if (CELL_SIZE == 0) {
-                    CELL_SIZE = (SCREEN_W - 100) / GRID_SIZE;
-                    MARGIN_X = 50;
-                    MARGIN_Y = 300;
-                    BOTTOM_AREA_Y = SCREEN_H - (CELL_SIZE * 5);
-                    generateBlockSprites(); // Default theme
-                }
-
-                canvas.drawColor(COLOR_BG);
-
-                switch (currentState) {
-                    case MENU: drawMenu(canvas); break;
-                    case LEVEL_SELECT: drawLevelSelect(canvas); break;
-                    case PLAYING: drawGame(canvas); break;
-                    case GAME_OVER: drawGame(canvas); drawGameOver(canvas); break;
-                    case LEVEL_COMPLETE: drawGame(canvas); drawLevelComplete(canvas); break;
-                    case DAILY_WIN: drawGame(canvas); drawDailyWin(canvas); break;
-                    case SETTINGS: drawSettings(canvas); break;
-                    case THEMES: drawThemes(canvas); break;
-                    case SHOP: drawShop(canvas); break;
-                    case COMBO_INFO: drawComboInfo(canvas); break;
-                }
+                drawFrame(canvas);
             } catch (Exception e) {
                 Log.e(TAG, "Error in draw(): " + e.getMessage());
                 e.printStackTrace();
@@ -386,60 +566,128 @@ public class GameView extends SurfaceView implements Runnable {
         }
     }
 
-    // --- 1. MENU SCREEN ---
-    private void drawMenu(Canvas canvas) {
-        paint.setColor(Color.WHITE);
-        paint.setTextAlign(Paint.Align.CENTER);
-        paint.setTextSize(120);
-        paint.setFakeBoldText(true);
-        canvas.drawText("BLOCK", SCREEN_W/2, SCREEN_H/4 - 50, paint);
-        paint.setColor(Color.parseColor("#FFD740"));
-        canvas.drawText("BLAST", SCREEN_W/2, SCREEN_H/4 + 70, paint);
-        
-        // Coins Display
-        paint.setTextSize(50);
-        paint.setColor(Color.parseColor("#FFD740"));
-        paint.setFakeBoldText(false);
-        canvas.drawText("💰 " + coins + " COINS", SCREEN_W/2, SCREEN_H/4 + 140, paint);
-        
-        // High Score Display
-        paint.setTextSize(45);
-        paint.setColor(Color.parseColor("#69F0AE"));
-        canvas.drawText("🏆 HIGH SCORE: " + highScore, SCREEN_W/2, SCREEN_H/4 + 200, paint);
+    private void drawFrame(Canvas canvas) {
+        SCREEN_W = getWidth();
+        SCREEN_H = getHeight();
+        
+        if (CELL_SIZE == 0) {
+            CELL_SIZE = (SCREEN_W - 100) / GRID_SIZE;
+            MARGIN_X = 50;
+            MARGIN_Y = 300;
+            BOTTOM_AREA_Y = SCREEN_H - (CELL_SIZE * 5);
+            generateBlockSprites(); // Default theme
+            if (currentState == GameState.PLAYING) syncTray(); // Resumed run
+        }
+        if (SCREEN_W != layoutW || SCREEN_H != layoutH) layoutScreens();
+
+        canvas.drawColor(COLOR_BG);
+
+        switch (currentState) {
+            case MENU: drawMenu(canvas); break;
+            case LEVEL_SELECT: drawLevelSelect(canvas); break;
+            case PLAYING: drawGame(canvas); break;
+            case GAME_OVER: drawGame(canvas); drawGameOver(canvas); break;
+            case LEVEL_COMPLETE: drawGame(canvas); drawLevelComplete(canvas); break;
+            case DAILY_WIN: drawGame(canvas); drawDailyWin(canvas); break;
+            case SETTINGS: drawSettings(canvas); break;
+            case THEMES: drawThemes(canvas); break;
+            case SHOP: drawShop(canvas); break;
+            case COMBO_INFO: drawComboInfo(canvas); break;
+        }
+    }
 
-        // Game Mode Buttons
+    // --- LAYOUT ---
+    // Every button rect, computed once per surface size; the draw methods only read them
+    private void layoutScreens() {
+        layoutW = SCREEN_W;
+        layoutH = SCREEN_H;
+
+        // Menu
         float startY = SCREEN_H/2 - 20;
         btnPlayClassic = new RectF(SCREEN_W/2 - 300, startY, SCREEN_W/2 + 300, startY + 110);
-        drawButton(canvas, btnPlayClassic, "🎮 CLASSIC MODE", Color.parseColor("#448AFF"));
-
         btnPlayLevels = new RectF(SCREEN_W/2 - 300, startY + 130, SCREEN_W/2 + 300, startY + 240);
-        drawButton(canvas, btnPlayLevels, "🏔 ADVENTURE", Color.parseColor("#FF5252"));
-
         btnDailyChallenge = new RectF(SCREEN_W/2 - 300, startY + 260, SCREEN_W/2 + 300, startY + 370);
-        int dailyColor = isDailyCompleted ? Color.GRAY : Color.parseColor("#E040FB");
-        String dailyText = isDailyCompleted ? "DAILY DONE ✓" : "📅 DAILY CHALLENGE";
-        drawButton(canvas, btnDailyChallenge, dailyText, dailyColor);
-        
-        // Bottom Menu Icons (4 icons in a row)
         float iconSize = 120;
         float iconY = SCREEN_H - 200;
         float spacing = (SCREEN_W - 100) / 4;
-        
-        // Settings Button
         btnSettings = new RectF(50, iconY, 50 + iconSize, iconY + iconSize);
-        drawIconButton(canvas, btnSettings, "⚙", Color.parseColor("#607D8B"), "Settings");
-        
-        // Themes Button
         btnThemes = new RectF(50 + spacing, iconY, 50 + spacing + iconSize, iconY + iconSize);
-        drawIconButton(canvas, btnThemes, "🎨", Color.parseColor("#9C27B0"), "Themes");
-        
-        // Shop Button
         btnShop = new RectF(50 + spacing * 2, iconY, 50 + spacing * 2 + iconSize, iconY + iconSize);
-        drawIconButton(canvas, btnShop, "🛒", Color.parseColor("#FF9800"), "Shop");
-        
-        // Combo Info Button
         btnComboInfo = new RectF(50 + spacing * 3, iconY, 50 + spacing * 3 + iconSize, iconY + iconSize);
-        drawIconButton(canvas, btnComboInfo, "🔥", Color.parseColor("#F44336"), "Combos");
+
+        // Level select
+        List<RectF> buttons = new ArrayList<>();
+        float btnSize = (SCREEN_W - 100) / 4 - 20;
+        for (int i = 0; i < LEVELS_PER_PAGE; i++) {
+            float bx = 50 + (i % 4) * (btnSize + 20);
+            float by = 250 + (i / 4) * (btnSize + 20);
+            buttons.add(new RectF(bx, by, bx + btnSize, by + btnSize));
+        }
+        levelButtons = buttons;
+        btnPrevPage = new RectF(50, SCREEN_H - 200, 250, SCREEN_H - 100);
+        btnNextPage = new RectF(SCREEN_W - 250, SCREEN_H - 200, SCREEN_W - 50, SCREEN_H - 100);
+        rectLevelSelectMenu = new RectF(SCREEN_W/2 - 150, SCREEN_H - 200, SCREEN_W/2 + 150, SCREEN_H - 100);
+
+        // Game screen
+        btnGameHome = new RectF(50, 50, 180, 180);
+        btnUndo = new RectF(50, SCREEN_H - 200, 250, SCREEN_H - 80);
+        rectRedo = new RectF(270, SCREEN_H - 200, 470, SCREEN_H - 80);
+        btnSkip = new RectF(SCREEN_W - 250, SCREEN_H - 200, SCREEN_W - 50, SCREEN_H - 80);
+        btnHint = new RectF(SCREEN_W - 180, 50, SCREEN_W - 50, 180);
+
+        // Overlays
+        btnBackHome = new RectF(50, 50, 200, 150);
+        btnRevive = new RectF(SCREEN_W/2 - 250, SCREEN_H/2, SCREEN_W/2 + 250, SCREEN_H/2 + 150);
+        rectGiveUp = new RectF(SCREEN_W/2 - 200, SCREEN_H/2 + 200, SCREEN_W/2 + 200, SCREEN_H/2 + 300);
+        rectTryAgain = new RectF(SCREEN_W/2 - 250, SCREEN_H/2 + 50, SCREEN_W/2 + 250, SCREEN_H/2 + 200);
+        btnNextLevel = new RectF(SCREEN_W/2 - 250, SCREEN_H/2 + 50, SCREEN_W/2 + 250, SCREEN_H/2 + 200);
+        rectDailyMenu = new RectF(SCREEN_W/2 - 250, SCREEN_H/2 + 150, SCREEN_W/2 + 250, SCREEN_H/2 + 300);
+
+        // Settings, themes, shop and combo info share the back button
+        btnSoundToggle = new RectF(SCREEN_W/2 - 200, SCREEN_H/2, SCREEN_W/2 + 200, SCREEN_H/2 + 120);
+        rectBack = new RectF(SCREEN_W/2 - 250, SCREEN_H - 250, SCREEN_W/2 + 250, SCREEN_H - 130);
+        startY = SCREEN_H/3;
+        float btnH = 120;
+        btnThemeClassic = new RectF(SCREEN_W/2 - 300, startY, SCREEN_W/2 + 300, startY + btnH);
+        btnThemeWood = new RectF(SCREEN_W/2 - 300, startY + 140, SCREEN_W/2 + 300, startY + 140 + btnH);
+        btnThemeNeon = new RectF(SCREEN_W/2 - 300, startY + 280, SCREEN_W/2 + 300, startY + 280 + btnH);
+        btnThemeJigsaw = new RectF(SCREEN_W/2 - 300, startY + 420, SCREEN_W/2 + 300, startY + 420 + btnH);
+        startY = SCREEN_H/2.8f;
+        btnWatchAd = new RectF(SCREEN_W/2 - 300, startY, SCREEN_W/2 + 300, startY + btnH);
+        startY += btnH + 220; // Past the ad caption, divider and "Power-Ups" heading
+        btnBuyUndo = new RectF(SCREEN_W/2 - 300, startY, SCREEN_W/2 + 300, startY + 100);
+        btnBuySkip = new RectF(SCREEN_W/2 - 300, startY + 120, SCREEN_W/2 + 300, startY + 220);
+        btnBuyRevive = new RectF(SCREEN_W/2 - 300, startY + 240, SCREEN_W/2 + 300, startY + 340);
+
+        if (levelLabels[1] == null) {
+            for (int level = 1; level < levelLabels.length; level++) levelLabels[level] = String.valueOf(level);
+        }
+    }
+
+    // --- 1. MENU SCREEN ---
+    private void drawMenu(Canvas canvas) {
+        textCache.drawCentered(canvas, styleLogo, "BLOCK", SCREEN_W/2, SCREEN_H/4 - 50);
+        textCache.drawCentered(canvas, styleLogoGold, "BLAST", SCREEN_W/2, SCREEN_H/4 + 70);
+        
+        // Coins Display
+        textCache.drawCentered(canvas, styleMenuCoins, coinsLabel.of(coins), SCREEN_W/2, SCREEN_H/4 + 140);
+        
+        // High Score Display
+        textCache.drawCentered(canvas, styleHighScore, highScoreLabel.of(highScore), SCREEN_W/2, SCREEN_H/4 + 200);
+
+        // Game Mode Buttons
+        drawButton(canvas, btnPlayClassic, "🎮 CLASSIC MODE", COLOR_BLUE);
+        drawButton(canvas, btnPlayLevels, "🏔 ADVENTURE", COLOR_CORAL);
+        boolean dailyReady = todaysDaily != null;
+        int dailyColor = isDailyCompleted || !dailyReady ? Color.GRAY : COLOR_MAGENTA;
+        String dailyText = isDailyCompleted ? "DAILY DONE ✓" : dailyReady ? "📅 DAILY CHALLENGE" : "📅 PREPARING...";
+        drawButton(canvas, btnDailyChallenge, dailyText, dailyColor);
+        
+        // Bottom Menu Icons (4 icons in a row)
+        drawIconButton(canvas, btnSettings, "⚙", COLOR_SLATE, "Settings");
+        drawIconButton(canvas, btnThemes, "🎨", COLOR_PURPLE, "Themes");
+        drawIconButton(canvas, btnShop, "🛒", COLOR_ORANGE, "Shop");
+        drawIconButton(canvas, btnComboInfo, "🔥", COLOR_RED, "Combos");
     }
     
     private void drawIconButton(Canvas canvas, RectF rect, String icon, int color, String label) {
@@ -450,176 +698,223 @@ public class GameView extends SurfaceView implements Runnable {
         paint.setAlpha(255);
         
         // Icon
-        paint.setColor(Color.WHITE);
-        paint.setTextSize(60);
-        paint.setTextAlign(Paint.Align.CENTER);
-        canvas.drawText(icon, rect.centerX(), rect.centerY() + 20, paint);
+        textCache.drawCentered(canvas, styleIcon, icon, rect.centerX(), rect.centerY() + 20);
         
         // Label
-        paint.setTextSize(28);
-        canvas.drawText(label, rect.centerX(), rect.bottom + 35, paint);
+        textCache.drawCentered(canvas, styleIconLabel, label, rect.centerX(), rect.bottom + 35);
     }
 
     // --- 2. LEVEL SELECT SCREEN ---
     private void drawLevelSelect(Canvas canvas) {
-        paint.setColor(Color.WHITE);
-        paint.setTextAlign(Paint.Align.CENTER);
-        paint.setTextSize(80);
-        canvas.drawText("SELECT LEVEL", SCREEN_W/2, 150, paint);
-
-        levelButtons.clear();
-        float startX = 50;
-        float startY = 250;
-        float btnSize = (SCREEN_W - 100) / 4 - 20;
-        
+        textCache.drawCentered(canvas, styleHeading, "SELECT LEVEL", SCREEN_W/2, 150);
+
         int startLevel = levelPage * LEVELS_PER_PAGE + 1;
         
         for (int i = 0; i < LEVELS_PER_PAGE; i++) {
             int levelNum = startLevel + i;
-            if (levelNum > 500) break;
-
-            float bx = startX + (i % 4) * (btnSize + 20);
-            float by = startY + (i / 4) * (btnSize + 20);
-            RectF btn = new RectF(bx, by, bx + btnSize, by + btnSize);
-            levelButtons.add(btn);
+            if (levelNum > GameSession.MAX_LEVEL) break;
+            RectF btn = levelButtons.get(i);
 
             boolean isLocked = levelNum > maxUnlockedLevel;
             
             // Theme Colors for Buttons
             int btnColor = Color.DKGRAY;
             if (!isLocked) {
-                if (levelNum <= 20) btnColor = Color.parseColor("#448AFF"); // Classic
-                else if (levelNum <= 40) btnColor = Color.parseColor("#795548"); // Wood
-                else if (levelNum <= 60) btnColor = Color.parseColor("#E040FB"); // Neon
-                else btnColor = Color.parseColor("#00E676"); // Jigsaw
+                if (levelNum <= 20) btnColor = COLOR_BLUE; // Classic
+                else if (levelNum <= 40) btnColor = COLOR_BROWN; // Wood
+                else if (levelNum <= 60) btnColor = COLOR_MAGENTA; // Neon
+                else btnColor = COLOR_GREEN; // Jigsaw
             }
 
             paint.setColor(btnColor);
             canvas.drawRoundRect(btn, 20, 20, paint);
             
-            paint.setColor(Color.WHITE);
-            paint.setTextSize(40);
-            if (isLocked) canvas.drawText("🔒", btn.centerX(), btn.centerY() + 15, paint);
-            else canvas.drawText(String.valueOf(levelNum), btn.centerX(), btn.centerY() + 15, paint);
+            String label = isLocked ? "🔒" : levelLabels[levelNum];
+            textCache.drawCentered(canvas, styleLevel, label, btn.centerX(), btn.centerY() + 15);
         }
 
-        btnPrevPage = new RectF(50, SCREEN_H - 200, 250, SCREEN_H - 100);
         if (levelPage > 0) drawButton(canvas, btnPrevPage, "< PREV", Color.GRAY);
 
-        btnNextPage = new RectF(SCREEN_W - 250, SCREEN_H - 200, SCREEN_W - 50, SCREEN_H - 100);
-        if ((levelPage + 1) * LEVELS_PER_PAGE < 500) drawButton(canvas, btnNextPage, "NEXT >", Color.GRAY);
+        if ((levelPage + 1) * LEVELS_PER_PAGE < GameSession.MAX_LEVEL) drawButton(canvas, btnNextPage, "NEXT >", Color.GRAY);
         
-        btnBackToMenu = new RectF(SCREEN_W/2 - 150, SCREEN_H - 200, SCREEN_W/2 + 150, SCREEN_H - 100);
+        btnBackToMenu = rectLevelSelectMenu;
         drawButton(canvas, btnBackToMenu, "MENU", Color.DKGRAY);
     }
 
     // --- 3. GAMEPLAY SCREEN ---
+    // Drawn in three layers: the chrome (background, empty grid, fixed buttons) is rendered once per
+    // surface size, the board layer adds everything that only changes with the position (placed
+    // blocks, HUD, tray) and is redrawn when boardLayerDirty is set, and only what moves is drawn live.
     private void drawGame(Canvas canvas) {
-        float shakeX = (float) ((Math.random() - 0.5) * shakeIntensity);
-        float shakeY = (float) ((Math.random() - 0.5) * shakeIntensity);
+        ensureGameLayers();
+        if (boardLayerDirty) {
+            // Cleared first, so a change made while redrawing marks it dirty again
+            boardLayerDirty = false;
+            renderBoardLayer(boardCanvas);
+        }
+
+        float shakeX = (shakeRandom.nextFloat() - 0.5f) * shakeIntensity;
+        float shakeY = (shakeRandom.nextFloat() - 0.5f) * shakeIntensity;
         canvas.save();
         canvas.translate(shakeX, shakeY);
+        canvas.drawBitmap(boardLayer, 0, 0, null);
+
+        particles.draw(canvas);
+
+        // The handle is emptied on the touch thread as soon as the piece is placed
+        Shape dragged = draggingShape;
+        ShapeType draggedType = dragged != null ? dragged.type : null;
+        if (draggedType != null) {
+            int gx = Math.round((dragged.x - MARGIN_X) / CELL_SIZE);
+            int gy = Math.round((dragged.y - MARGIN_Y) / CELL_SIZE);
+            if (session.canPlace(draggedType, gx, gy)) {
+                float ghostX = MARGIN_X + gx * CELL_SIZE;
+                float ghostY = MARGIN_Y + gy * CELL_SIZE;
+                drawShape(canvas, draggedType, dragged.colorIndex, ghostX, ghostY, CELL_SIZE, 100);
+            }
+            drawShape(canvas, draggedType, dragged.colorIndex, dragged.x, dragged.y, CELL_SIZE, 255);
+        } else {
+            drawHint(canvas);
+        }
+
+        synchronized (floatingTexts) {
+            for (int i = 0; i < floatingTexts.size(); i++) floatingTexts.get(i).draw(canvas, textCache, styleFloating);
+        }
+        canvas.restore();
+    }
+
+    private void ensureGameLayers() {
+        int w = (int) SCREEN_W, h = (int) SCREEN_H;
+        if (chromeLayer != null && chromeLayer.getWidth() == w && chromeLayer.getHeight() == h) return;
+        if (chromeLayer != null) {
+            chromeLayer.recycle();
+            boardLayer.recycle();
+        }
+        chromeLayer = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        renderChrome(new Canvas(chromeLayer));
+        boardLayer = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        boardCanvas = new Canvas(boardLayer);
+        boardLayerDirty = true;
+    }
+
+    // Everything on the game screen that never changes during a run
+    private void renderChrome(Canvas canvas) {
+        canvas.drawColor(COLOR_BG);
 
         // Back Home Button
-        btnBackHome = new RectF(50, 50, 180, 180);
         paint.setColor(Color.argb(180, 50, 50, 50));
-        canvas.drawRoundRect(btnBackHome, 20, 20, paint);
-        paint.setColor(Color.WHITE);
-        paint.setTextSize(80);
-        paint.setTextAlign(Paint.Align.CENTER);
-        canvas.drawText("←", btnBackHome.centerX(), btnBackHome.centerY() + 25, paint);
+        canvas.drawRoundRect(btnGameHome, 20, 20, paint);
+        textCache.drawCentered(canvas, styleHeading, "←", btnGameHome.centerX(), btnGameHome.centerY() + 25);
+
+        // Skip Button (bottom right)
+        paint.setColor(COLOR_SKY);
+        canvas.drawRoundRect(btnSkip, 20, 20, paint);
+        textCache.drawCentered(canvas, styleSmallButton, "SKIP ⟫", btnSkip.centerX(), btnSkip.centerY() + 15);
+
+        // Hint Button (top right)
+        paint.setColor(Color.argb(180, 50, 50, 50));
+        canvas.drawRoundRect(btnHint, 20, 20, paint);
+        textCache.drawCentered(canvas, styleGlyph, "💡", btnHint.centerX(), btnHint.centerY() + 25);
+
+        // Empty grid
+        paint.setColor(COLOR_GRID);
+        paint.setStyle(Paint.Style.FILL);
+        for (int y = 0; y < GRID_SIZE; y++) {
+            for (int x = 0; x < GRID_SIZE; x++) {
+                float px = MARGIN_X + x * CELL_SIZE;
+                float py = MARGIN_Y + y * CELL_SIZE;
+                cellRect.set(px, py, px + CELL_SIZE - 4, py + CELL_SIZE - 4);
+                canvas.drawRoundRect(cellRect, 15, 15, paint);
+            }
+        }
+    }
+
+    // The chrome plus everything that changes only when the position does
+    private void renderBoardLayer(Canvas canvas) {
+        canvas.drawBitmap(chromeLayer, 0, 0, null);
+        drawBlocks(canvas);
 
         // UI
-        paint.setColor(Color.WHITE);
-        paint.setTextAlign(Paint.Align.CENTER);
-        paint.setTextSize(120);
-        canvas.drawText(String.valueOf(score), SCREEN_W / 2, 180, paint);
+        textCache.drawCentered(canvas, styleScore, scoreLabel.of(session.getScore()), SCREEN_W / 2, 180);
         
         // Combo Display
-        if (comboCount > 1) {
-            paint.setTextSize(60);
-            paint.setColor(Color.parseColor("#FFD740"));
-            canvas.drawText("COMBO x" + comboCount, SCREEN_W / 2, 240, paint);
-        }
+        int comboCount = session.getComboCount();
+        if (comboCount > 1) textCache.drawCentered(canvas, styleCombo, comboLabel.of(comboCount), SCREEN_W / 2, 240);
         
-        paint.setTextSize(50);
-        paint.setColor(Color.GRAY);
-        String modeText = "Classic";
-        if (currentLevel == -1) modeText = "Daily Challenge";
-        else if (currentLevel > 0) modeText = "Level " + currentLevel + " (" + targetScore + ")";
-        canvas.drawText(modeText, SCREEN_W / 2, comboCount > 1 ? 300 : 250, paint);
+        textCache.drawCentered(canvas, styleMode, modeText(), SCREEN_W / 2, comboCount > 1 ? 300 : 250);
         
         // Undo Button (bottom left)
-        btnUndo = new RectF(50, SCREEN_H - 200, 250, SCREEN_H - 80);
-        int undoColor = canUndo ? Color.parseColor("#FF9800") : Color.GRAY;
+        int undoColor = canUndoNow() ? COLOR_ORANGE : Color.GRAY;
         paint.setColor(undoColor);
         canvas.drawRoundRect(btnUndo, 20, 20, paint);
-        paint.setColor(Color.WHITE);
-        paint.setTextSize(45);
-        canvas.drawText("↶ UNDO", btnUndo.centerX(), btnUndo.centerY() + 15, paint);
-        
-        // Skip Button (bottom right)
-        btnSkip = new RectF(SCREEN_W - 250, SCREEN_H - 200, SCREEN_W - 50, SCREEN_H - 80);
-        paint.setColor(Color.parseColor("#2196F3"));
-        canvas.drawRoundRect(btnSkip, 20, 20, paint);
-        paint.setColor(Color.WHITE);
-        canvas.drawText("SKIP ⟫", btnSkip.centerX(), btnSkip.centerY() + 15, paint);
-
-        drawGrid(canvas);
+        textCache.drawCentered(canvas, styleSmallButton, "↶ UNDO", btnUndo.centerX(), btnUndo.centerY() + 15);
+        if (undoCharges > 0) {
+            textCache.drawCentered(canvas, styleUndoCharges, undoChargesLabel.of(undoCharges), btnUndo.centerX(), btnUndo.top - 15);
+        }
 
-        for (Particle p : particles) p.draw(canvas, paint);
+        // Redo Button (next to undo, only after an undo)
+        if (session.canRedo()) {
+            btnRedo = rectRedo;
+            paint.setColor(COLOR_ORANGE);
+            canvas.drawRoundRect(btnRedo, 20, 20, paint);
+            textCache.drawCentered(canvas, styleSmallButton, "REDO ↷", btnRedo.centerX(), btnRedo.centerY() + 15);
+        } else {
+            btnRedo = null;
+        }
 
-        for (Shape s : availableShapes) {
-            if (s == draggingShape) continue;
-            drawShape(canvas, s, s.x, s.y, CELL_SIZE * originalShapeScale, 255);
+        // Pieces with no legal anchor left are dimmed; the one being dragged is drawn live
+        for (Shape s : trayShapes) {
+            ShapeType type = s.type;
+            if (type == null || s == draggingShape) continue;
+            int alpha = session.legalMoveCount(s.slot) > 0 ? 255 : 90;
+            drawShape(canvas, type, s.colorIndex, s.x, s.y, CELL_SIZE * originalShapeScale, alpha);
         }
+    }
 
-        if (draggingShape != null) {
-            int gx = Math.round((draggingShape.x - MARGIN_X) / CELL_SIZE);
-            int gy = Math.round((draggingShape.y - MARGIN_Y) / CELL_SIZE);
-            if (canPlace(draggingShape, gx, gy)) {
-                float ghostX = MARGIN_X + gx * CELL_SIZE;
-                float ghostY = MARGIN_Y + gy * CELL_SIZE;
-                Shape ghost = new Shape(draggingShape.type);
-                ghost.color = draggingShape.color;
-                drawShape(canvas, ghost, ghostX, ghostY, CELL_SIZE, 100);
-            }
-            drawShape(canvas, draggingShape, draggingShape.x, draggingShape.y, CELL_SIZE, 255);
+    private String modeText() {
+        int level = session.getLevel();
+        if (level == GameSession.LEVEL_DAILY) return "Daily Challenge";
+        if (level <= 0) return "Classic";
+        int target = session.getTargetScore();
+        if (level != modeLabelLevel || target != modeLabelTarget) {
+            modeLabelLevel = level;
+            modeLabelTarget = target;
+            modeLabel = "Level " + level + " (" + target + ")";
         }
+        return modeLabel;
+    }
 
-        for (FloatingText t : floatingTexts) t.draw(canvas, paint);
-        canvas.restore();
+    // Pulsing ghost of the suggested move
+    private void drawHint(Canvas canvas) {
+        int move = hintMove;
+        if (move == PlacementPolicy.NO_MOVE) return;
+        Shape s = trayShapes[PlacementPolicy.slotOf(move)];
+        if (s.type == null) return;
+        float ghostX = MARGIN_X + PlacementPolicy.xOf(move) * CELL_SIZE;
+        float ghostY = MARGIN_Y + PlacementPolicy.yOf(move) * CELL_SIZE;
+        int alpha = 70 + (int) (60 * Math.sin(lastFrameNanos / 150e6)); // Vsync time, so the pulse is as smooth as the frames
+        drawShape(canvas, s, ghostX, ghostY, CELL_SIZE, alpha);
     }
 
     private void drawGameOver(Canvas canvas) {
         drawOverlay(canvas, "GAME OVER");
         
         // Back Home Button at top
-        btnBackHome = new RectF(50, 50, 200, 150);
         paint.setColor(Color.argb(180, 50, 50, 50));
         canvas.drawRoundRect(btnBackHome, 20, 20, paint);
-        paint.setColor(Color.WHITE);
-        paint.setTextSize(70);
-        paint.setTextAlign(Paint.Align.CENTER);
-        canvas.drawText("←", btnBackHome.centerX(), btnBackHome.centerY() + 20, paint);
+        textCache.drawCentered(canvas, styleGlyph, "←", btnBackHome.centerX(), btnBackHome.centerY() + 20);
         
-        if (!hasRevived && isRewardedAdLoaded) {
-            btnRevive = new RectF(SCREEN_W/2 - 250, SCREEN_H/2, SCREEN_W/2 + 250, SCREEN_H/2 + 150);
-            paint.setColor(Color.parseColor("#00E676"));
+        if (!session.hasRevived() && isRewardedAdLoaded) {
+            paint.setColor(COLOR_GREEN);
             canvas.drawRoundRect(btnRevive, 30, 30, paint);
-            paint.setColor(Color.WHITE);
-            paint.setTextSize(50);
-            paint.setTextAlign(Paint.Align.CENTER);
-            canvas.drawText("🎁 REVIVE", btnRevive.centerX(), btnRevive.centerY() - 10, paint);
-            paint.setTextSize(35);
-            canvas.drawText("(Watch Ad)", btnRevive.centerX(), btnRevive.centerY() + 30, paint);
+            textCache.drawCentered(canvas, styleButton, "🎁 REVIVE", btnRevive.centerX(), btnRevive.centerY() - 10);
+            textCache.drawCentered(canvas, styleCaption, "(Watch Ad)", btnRevive.centerX(), btnRevive.centerY() + 30);
             
-            btnRestart = new RectF(SCREEN_W/2 - 200, SCREEN_H/2 + 200, SCREEN_W/2 + 200, SCREEN_H/2 + 300);
+            btnRestart = rectGiveUp;
             drawButton(canvas, btnRestart, "GIVE UP", Color.GRAY);
         } else {
-            // Initialize btnRevive even when not showing it to prevent null pointer
-            btnRevive = new RectF(0, 0, 0, 0);
-            btnRestart = new RectF(SCREEN_W/2 - 250, SCREEN_H/2 + 50, SCREEN_W/2 + 250, SCREEN_H/2 + 200);
+            // btnRevive stays laid out but is only hit-tested while revive is offered
+            btnRestart = rectTryAgain;
             drawButton(canvas, btnRestart, "TRY AGAIN", Color.WHITE);
         }
     }
@@ -628,249 +923,156 @@ public class GameView extends SurfaceView implements Runnable {
         drawOverlay(canvas, "LEVEL COMPLETE!");
         
         // Show coin reward
-        int coinReward = 10 + (currentLevel * 2);
-        paint.setTextSize(70);
-        paint.setColor(Color.parseColor("#FFD740"));
-        paint.setTextAlign(Paint.Align.CENTER);
-        canvas.drawText("💰 +" + coinReward + " COINS!", SCREEN_W/2, SCREEN_H/2 - 50, paint);
+        int coinReward = levelCoinReward(session.getLevel());
+        textCache.drawCentered(canvas, styleReward, coinRewardLabel.of(coinReward), SCREEN_W/2, SCREEN_H/2 - 50);
         
-        btnNextLevel = new RectF(SCREEN_W/2 - 250, SCREEN_H/2 + 50, SCREEN_W/2 + 250, SCREEN_H/2 + 200);
-        drawButton(canvas, btnNextLevel, "NEXT LEVEL >", Color.parseColor("#00E676"));
+        drawButton(canvas, btnNextLevel, "NEXT LEVEL >", COLOR_GREEN);
     }
 
     private void drawDailyWin(Canvas canvas) {
         drawOverlay(canvas, "DAILY COMPLETED!");
         
-        paint.setTextSize(70);
-        paint.setColor(Color.parseColor("#FFD740"));
-        paint.setTextAlign(Paint.Align.CENTER);
-        canvas.drawText("💰 +50 COINS!", SCREEN_W/2, SCREEN_H/2 - 20, paint);
+        textCache.drawCentered(canvas, styleReward, "💰 +50 COINS!", SCREEN_W/2, SCREEN_H/2 - 20);
         
-        paint.setTextSize(50);
-        paint.setColor(Color.YELLOW);
-        canvas.drawText("Come back tomorrow!", SCREEN_W/2, SCREEN_H/2 + 70, paint);
+        textCache.drawCentered(canvas, styleNotice, "Come back tomorrow!", SCREEN_W/2, SCREEN_H/2 + 70);
         
-        btnRestart = new RectF(SCREEN_W/2 - 250, SCREEN_H/2 + 150, SCREEN_W/2 + 250, SCREEN_H/2 + 300);
+        btnRestart = rectDailyMenu;
         drawButton(canvas, btnRestart, "MENU", Color.WHITE);
     }
     
     // --- 4. SETTINGS SCREEN ---
     private void drawSettings(Canvas canvas) {
-        paint.setColor(Color.WHITE);
-        paint.setTextAlign(Paint.Align.CENTER);
-        paint.setTextSize(100);
-        paint.setFakeBoldText(true);
-        canvas.drawText("SETTINGS", SCREEN_W/2, SCREEN_H/4, paint);
+        textCache.drawCentered(canvas, styleTitle, "SETTINGS", SCREEN_W/2, SCREEN_H/4);
         
-        paint.setFakeBoldText(false);
-        paint.setTextSize(60);
-        canvas.drawText("Sound Effects", SCREEN_W/2, SCREEN_H/2 - 100, paint);
+        textCache.drawCentered(canvas, styleSubheading, "Sound Effects", SCREEN_W/2, SCREEN_H/2 - 100);
         
         // Sound Toggle Button
-        btnSoundToggle = new RectF(SCREEN_W/2 - 200, SCREEN_H/2, SCREEN_W/2 + 200, SCREEN_H/2 + 120);
-        int toggleColor = soundEnabled ? Color.parseColor("#00E676") : Color.GRAY;
+        int toggleColor = soundEnabled ? COLOR_GREEN : Color.GRAY;
         String toggleText = soundEnabled ? "ON" : "OFF";
         drawButton(canvas, btnSoundToggle, toggleText, toggleColor);
         
         // Back Button
-        btnBackToMenu = new RectF(SCREEN_W/2 - 250, SCREEN_H - 250, SCREEN_W/2 + 250, SCREEN_H - 130);
+        btnBackToMenu = rectBack;
         drawButton(canvas, btnBackToMenu, "BACK TO MENU", Color.DKGRAY);
     }
 
     private void drawOverlay(Canvas canvas, String title) {
         paint.setColor(Color.argb(230, 0, 0, 0));
         canvas.drawRect(0, 0, SCREEN_W, SCREEN_H, paint);
-        paint.setColor(Color.WHITE);
-        paint.setTextAlign(Paint.Align.CENTER);
-        paint.setTextSize(100);
-        paint.setFakeBoldText(true);
-        canvas.drawText(title, SCREEN_W/2, SCREEN_H/2 - 150, paint);
+        textCache.drawCentered(canvas, styleTitle, title, SCREEN_W/2, SCREEN_H/2 - 150);
     }
 
     private void drawButton(Canvas canvas, RectF rect, String text, int color) {
         paint.setColor(color);
         canvas.drawRoundRect(rect, 30, 30, paint);
-        paint.setColor(Color.WHITE);
-        paint.setTextSize(50);
-        paint.setTextAlign(Paint.Align.CENTER);
-        canvas.drawText(text, rect.centerX(), rect.centerY() + 20, paint);
+        textCache.drawCentered(canvas, styleButton, text, rect.centerX(), rect.centerY() + 20);
     }
     
     // --- 5. THEMES SCREEN ---
     private void drawThemes(Canvas canvas) {
-        paint.setColor(Color.WHITE);
-        paint.setTextAlign(Paint.Align.CENTER);
-        paint.setTextSize(100);
-        paint.setFakeBoldText(true);
-        canvas.drawText("🎨 THEMES", SCREEN_W/2, SCREEN_H/5, paint);
-        
-        paint.setFakeBoldText(false);
-        paint.setTextSize(35);
-        paint.setColor(Color.parseColor("#FFD740"));
-        canvas.drawText("💰 " + coins + " COINS", SCREEN_W/2, SCREEN_H/5 + 80, paint);
-        
-        float startY = SCREEN_H/3;
-        float btnH = 120;
+        textCache.drawCentered(canvas, styleTitle, "🎨 THEMES", SCREEN_W/2, SCREEN_H/5);
+        textCache.drawCentered(canvas, styleScreenCoins, coinsLabel.of(coins), SCREEN_W/2, SCREEN_H/5 + 80);
         
         // CLASSIC (Always unlocked)
-        btnThemeClassic = new RectF(SCREEN_W/2 - 300, startY, SCREEN_W/2 + 300, startY + btnH);
-        int classicColor = currentTheme == Theme.CLASSIC ? Color.parseColor("#00E676") : Color.parseColor("#448AFF");
+        int classicColor = currentTheme == Theme.CLASSIC ? COLOR_GREEN : COLOR_BLUE;
         String classicText = currentTheme == Theme.CLASSIC ? "🟦 CLASSIC ✓" : "🟦 CLASSIC (FREE)";
         drawButton(canvas, btnThemeClassic, classicText, classicColor);
         
         // WOOD (Cost: 100 coins)
-        btnThemeWood = new RectF(SCREEN_W/2 - 300, startY + 140, SCREEN_W/2 + 300, startY + 140 + btnH);
         String woodText = themeWoodUnlocked ? (currentTheme == Theme.WOOD ? "🟫 WOOD ✓" : "🟫 WOOD") : "🟫 WOOD (100💰)";
-        int woodColor = themeWoodUnlocked ? (currentTheme == Theme.WOOD ? Color.parseColor("#00E676") : Color.parseColor("#8D6E63")) : Color.GRAY;
+        int woodColor = themeWoodUnlocked ? (currentTheme == Theme.WOOD ? COLOR_GREEN : COLOR_WOOD) : Color.GRAY;
         drawButton(canvas, btnThemeWood, woodText, woodColor);
         
         // NEON (Cost: 200 coins)
-        btnThemeNeon = new RectF(SCREEN_W/2 - 300, startY + 280, SCREEN_W/2 + 300, startY + 280 + btnH);
         String neonText = themeNeonUnlocked ? (currentTheme == Theme.NEON ? "🟩 NEON ✓" : "🟩 NEON") : "🟩 NEON (200💰)";
-        int neonColor = themeNeonUnlocked ? (currentTheme == Theme.NEON ? Color.parseColor("#00E676") : Color.parseColor("#00E5FF")) : Color.GRAY;
+        int neonColor = themeNeonUnlocked ? (currentTheme == Theme.NEON ? COLOR_GREEN : COLOR_CYAN) : Color.GRAY;
         drawButton(canvas, btnThemeNeon, neonText, neonColor);
         
         // JIGSAW (Cost: 300 coins)
-        btnThemeJigsaw = new RectF(SCREEN_W/2 - 300, startY + 420, SCREEN_W/2 + 300, startY + 420 + btnH);
         String jigsawText = themeJigsawUnlocked ? (currentTheme == Theme.JIGSAW ? "🧩 JIGSAW ✓" : "🧩 JIGSAW") : "🧩 JIGSAW (300💰)";
-        int jigsawColor = themeJigsawUnlocked ? (currentTheme == Theme.JIGSAW ? Color.parseColor("#00E676") : Color.parseColor("#9C27B0")) : Color.GRAY;
+        int jigsawColor = themeJigsawUnlocked ? (currentTheme == Theme.JIGSAW ? COLOR_GREEN : COLOR_PURPLE) : Color.GRAY;
         drawButton(canvas, btnThemeJigsaw, jigsawText, jigsawColor);
         
         // Back Button
-        btnBackToMenu = new RectF(SCREEN_W/2 - 250, SCREEN_H - 250, SCREEN_W/2 + 250, SCREEN_H - 130);
+        btnBackToMenu = rectBack;
         drawButton(canvas, btnBackToMenu, "← BACK", Color.DKGRAY);
     }
     
     // --- 6. SHOP SCREEN ---
     private void drawShop(Canvas canvas) {
-        paint.setColor(Color.WHITE);
-        paint.setTextAlign(Paint.Align.CENTER);
-        paint.setTextSize(100);
-        paint.setFakeBoldText(true);
-        canvas.drawText("🛒 SHOP", SCREEN_W/2, SCREEN_H/5, paint);
+        textCache.drawCentered(canvas, styleTitle, "🛒 SHOP", SCREEN_W/2, SCREEN_H/5);
+        textCache.drawCentered(canvas, styleScreenCoins, coinsLabel.of(coins), SCREEN_W/2, SCREEN_H/5 + 80);
         
-        paint.setFakeBoldText(false);
-        paint.setTextSize(35);
-        paint.setColor(Color.parseColor("#FFD740"));
-        canvas.drawText("💰 " + coins + " COINS", SCREEN_W/2, SCREEN_H/5 + 80, paint);
-        
-        paint.setTextSize(40);
-        paint.setColor(Color.WHITE);
-        canvas.drawText("Earn coins by completing levels!", SCREEN_W/2, SCREEN_H/5 + 140, paint);
+        textCache.drawCentered(canvas, styleBody, "Earn coins by completing levels!", SCREEN_W/2, SCREEN_H/5 + 140);
         
         float startY = SCREEN_H/2.8f;
         float btnH = 120;
         
         // Watch Ad Button (Earn 20 coins)
-        btnWatchAd = new RectF(SCREEN_W/2 - 300, startY, SCREEN_W/2 + 300, startY + btnH);
         boolean adReady = (rewardedAd != null && isRewardedAdLoaded);
-        int watchAdColor = adReady ? Color.parseColor("#4CAF50") : Color.GRAY;
+        int watchAdColor = adReady ? COLOR_AD_GREEN : Color.GRAY;
         String watchAdText = adReady ? "📺 WATCH AD (+20💰)" : "📺 AD LOADING...";
         drawButton(canvas, btnWatchAd, watchAdText, watchAdColor);
         
-        paint.setTextSize(32);
-        paint.setColor(Color.parseColor("#69F0AE"));
-        canvas.drawText("Watch a short ad to earn 20 coins!", SCREEN_W/2, startY + btnH + 50, paint);
+        textCache.drawCentered(canvas, styleAdNote, "Watch a short ad to earn 20 coins!", SCREEN_W/2, startY + btnH + 50);
         
         startY += btnH + 110;
-        paint.setTextSize(50);
-        paint.setColor(Color.WHITE);
-        canvas.drawText("━━━━━━━━━━━━━━━━", SCREEN_W/2, startY, paint);
+        textCache.drawCentered(canvas, styleDivider, "━━━━━━━━━━━━━━━━", SCREEN_W/2, startY);
         startY += 50;
         
-        paint.setTextSize(40);
-        canvas.drawText("Power-Ups (Coming Soon)", SCREEN_W/2, startY, paint);
+        textCache.drawCentered(canvas, styleBody, "Power-Ups", SCREEN_W/2, startY);
         startY += 60;
         
-        // Undo Power-up (Cost: 50 coins)
-        btnBuyUndo = new RectF(SCREEN_W/2 - 300, startY, SCREEN_W/2 + 300, startY + 100);
-        paint.setAlpha(100);
-        paint.setColor(Color.parseColor("#FF9800"));
+        // Undo Power-up (Cost: 50 coins): one more step back through the undo history
+        paint.setColor(coins >= 50 ? COLOR_ORANGE : Color.GRAY);
         canvas.drawRoundRect(btnBuyUndo, 30, 30, paint);
-        paint.setAlpha(255);
-        paint.setColor(Color.GRAY);
-        paint.setTextSize(45);
-        canvas.drawText("🔄 EXTRA UNDO (50💰)", btnBuyUndo.centerX(), btnBuyUndo.centerY() + 15, paint);
+        textCache.drawCentered(canvas, styleSmallButton, buyUndoLabel.of(undoCharges), btnBuyUndo.centerX(), btnBuyUndo.centerY() + 15);
         
         // Skip Power-up (Cost: 30 coins)
-        btnBuySkip = new RectF(SCREEN_W/2 - 300, startY + 120, SCREEN_W/2 + 300, startY + 220);
         paint.setAlpha(100);
-        paint.setColor(Color.parseColor("#2196F3"));
+        paint.setColor(COLOR_SKY);
         canvas.drawRoundRect(btnBuySkip, 30, 30, paint);
         paint.setAlpha(255);
-        paint.setColor(Color.GRAY);
-        paint.setTextSize(45);
-        canvas.drawText("⏭ EXTRA SKIP (30💰)", btnBuySkip.centerX(), btnBuySkip.centerY() + 15, paint);
+        textCache.drawCentered(canvas, styleSmallButtonOff, "⏭ EXTRA SKIP (30💰)", btnBuySkip.centerX(), btnBuySkip.centerY() + 15);
         
         // Revive Power-up (Cost: 100 coins)
-        btnBuyRevive = new RectF(SCREEN_W/2 - 300, startY + 240, SCREEN_W/2 + 300, startY + 340);
         paint.setAlpha(100);
-        paint.setColor(Color.parseColor("#00E676"));
+        paint.setColor(COLOR_GREEN);
         canvas.drawRoundRect(btnBuyRevive, 30, 30, paint);
         paint.setAlpha(255);
-        paint.setColor(Color.GRAY);
-        paint.setTextSize(45);
-        canvas.drawText("🎁 EXTRA REVIVE (100💰)", btnBuyRevive.centerX(), btnBuyRevive.centerY() + 15, paint);
+        textCache.drawCentered(canvas, styleSmallButtonOff, "🎁 EXTRA REVIVE (100💰)", btnBuyRevive.centerX(), btnBuyRevive.centerY() + 15);
         
         // Back Button
-        btnBackToMenu = new RectF(SCREEN_W/2 - 250, SCREEN_H - 250, SCREEN_W/2 + 250, SCREEN_H - 130);
+        btnBackToMenu = rectBack;
         drawButton(canvas, btnBackToMenu, "← BACK", Color.DKGRAY);
     }
     
     // --- 7. COMBO INFO SCREEN ---
     private void drawComboInfo(Canvas canvas) {
-        paint.setColor(Color.WHITE);
-        paint.setTextAlign(Paint.Align.CENTER);
-        paint.setTextSize(100);
-        paint.setFakeBoldText(true);
-        canvas.drawText("🔥 COMBOS", SCREEN_W/2, SCREEN_H/6, paint);
+        textCache.drawCentered(canvas, styleTitle, "🔥 COMBOS", SCREEN_W/2, SCREEN_H/6);
         
-        paint.setFakeBoldText(false);
-        paint.setTextSize(40);
-        paint.setColor(Color.LTGRAY);
-        canvas.drawText("Clear multiple lines at once!", SCREEN_W/2, SCREEN_H/6 + 80, paint);
+        textCache.drawCentered(canvas, styleBodyDim, "Clear multiple lines at once!", SCREEN_W/2, SCREEN_H/6 + 80);
         
         float startY = SCREEN_H/3;
         float lineHeight = 90;
         
         // Combo breakdown
-        paint.setTextAlign(Paint.Align.LEFT);
-        paint.setTextSize(45);
-        
-        paint.setColor(Color.parseColor("#FFD740"));
-        canvas.drawText("🔥 2 Lines = NICE!", 100, startY, paint);
-        paint.setColor(Color.WHITE);
-        paint.setTextSize(35);
-        canvas.drawText("+20 bonus points", 100, startY + 40, paint);
+        textCache.drawLeft(canvas, styleComboTiers[0], "🔥 2 Lines = NICE!", 100, startY);
+        textCache.drawLeft(canvas, styleCaption, "+20 bonus points", 100, startY + 40);
         
-        paint.setTextSize(45);
-        paint.setColor(Color.parseColor("#FF9800"));
-        canvas.drawText("🔥🔥 3 Lines = GREAT!", 100, startY + lineHeight, paint);
-        paint.setColor(Color.WHITE);
-        paint.setTextSize(35);
-        canvas.drawText("+50 bonus points", 100, startY + lineHeight + 40, paint);
+        textCache.drawLeft(canvas, styleComboTiers[1], "🔥🔥 3 Lines = GREAT!", 100, startY + lineHeight);
+        textCache.drawLeft(canvas, styleCaption, "+50 bonus points", 100, startY + lineHeight + 40);
         
-        paint.setTextSize(45);
-        paint.setColor(Color.parseColor("#FF5252"));
-        canvas.drawText("🔥🔥🔥 4 Lines = AMAZING!", 100, startY + lineHeight * 2, paint);
-        paint.setColor(Color.WHITE);
-        paint.setTextSize(35);
-        canvas.drawText("+100 bonus points", 100, startY + lineHeight * 2 + 40, paint);
+        textCache.drawLeft(canvas, styleComboTiers[2], "🔥🔥🔥 4 Lines = AMAZING!", 100, startY + lineHeight * 2);
+        textCache.drawLeft(canvas, styleCaption, "+100 bonus points", 100, startY + lineHeight * 2 + 40);
         
-        paint.setTextSize(45);
-        paint.setColor(Color.parseColor("#E040FB"));
-        canvas.drawText("🔥🔥🔥🔥 5+ Lines = LEGENDARY!", 100, startY + lineHeight * 3, paint);
-        paint.setColor(Color.WHITE);
-        paint.setTextSize(35);
-        canvas.drawText("+200 bonus points", 100, startY + lineHeight * 3 + 40, paint);
+        textCache.drawLeft(canvas, styleComboTiers[3], "🔥🔥🔥🔥 5+ Lines = LEGENDARY!", 100, startY + lineHeight * 3);
+        textCache.drawLeft(canvas, styleCaption, "+200 bonus points", 100, startY + lineHeight * 3 + 40);
         
-        paint.setTextAlign(Paint.Align.CENTER);
-        paint.setTextSize(38);
-        paint.setColor(Color.parseColor("#69F0AE"));
-        canvas.drawText("💡 TIP: Plan ahead for big combos!", SCREEN_W/2, startY + lineHeight * 4 + 60, paint);
+        textCache.drawCentered(canvas, styleTip, "💡 TIP: Plan ahead for big combos!", SCREEN_W/2, startY + lineHeight * 4 + 60);
         
         // Back Button
-        btnBackToMenu = new RectF(SCREEN_W/2 - 250, SCREEN_H - 250, SCREEN_W/2 + 250, SCREEN_H - 130);
+        btnBackToMenu = rectBack;
         drawButton(canvas, btnBackToMenu, "← BACK", Color.DKGRAY);
     }
 
@@ -885,7 +1087,7 @@ public class GameView extends SurfaceView implements Runnable {
                 if (currentState == GameState.MENU) {
                     if (btnPlayClassic != null && btnPlayClassic.contains(mx, my)) startLevel(0);
                     else if (btnPlayLevels != null && btnPlayLevels.contains(mx, my)) currentState = GameState.LEVEL_SELECT;
-                    else if (btnDailyChallenge != null && btnDailyChallenge.contains(mx, my) && !isDailyCompleted) startDailyChallenge();
+                    else if (btnDailyChallenge != null && btnDailyChallenge.contains(mx, my) && !isDailyCompleted && todaysDaily != null) startDailyChallenge();
                     else if (btnSettings != null && btnSettings.contains(mx, my)) currentState = GameState.SETTINGS;
                     else if (btnThemes != null && btnThemes.contains(mx, my)) currentState = GameState.THEMES;
                     else if (btnShop != null && btnShop.contains(mx, my)) currentState = GameState.SHOP;
@@ -911,7 +1113,7 @@ public class GameView extends SurfaceView implements Runnable {
                     currentState = GameState.MENU;
                     return true;
                 }
-                if (!hasRevived && btnRevive != null && btnRevive.contains(mx, my) && isRewardedAdLoaded) {
+                if (!session.hasRevived() && btnRevive != null && btnRevive.contains(mx, my) && isRewardedAdLoaded) {
                     triggerRevive();
                 } else if (btnRestart != null && btnRestart.contains(mx, my)) {
                     currentState = GameState.MENU;
@@ -919,7 +1121,7 @@ public class GameView extends SurfaceView implements Runnable {
                 return true;
             }
             if (currentState == GameState.LEVEL_COMPLETE) {
-                if (btnNextLevel.contains(mx, my)) startLevel(currentLevel + 1);
+                if (btnNextLevel.contains(mx, my)) startLevel(session.getLevel() + 1);
                 return true;
             }
             if (currentState == GameState.DAILY_WIN) {
@@ -930,7 +1132,7 @@ public class GameView extends SurfaceView implements Runnable {
                 if (btnBackToMenu.contains(mx, my)) currentState = GameState.MENU;
                 else if (btnSoundToggle.contains(mx, my)) {
                     soundEnabled = !soundEnabled;
-                    prefs.edit().putBoolean("SOUND_ENABLED", soundEnabled).apply();
+                    playerData.putBoolean("SOUND_ENABLED", soundEnabled);
                     playSound(soundPop);
                 }
                 return true;
@@ -951,10 +1153,8 @@ public class GameView extends SurfaceView implements Runnable {
                         coins -= 100;
                         themeWoodUnlocked = true;
                         currentTheme = Theme.WOOD;
-                        prefs.edit()
-                            .putInt("COINS", coins)
-                            .putBoolean("THEME_WOOD", true)
-                            .apply();
+                        playerData.putInt("COINS", coins);
+                        playerData.putBoolean("THEME_WOOD", true);
                         generateBlockSprites();
                         playSound(soundClear);
                         Log.d(TAG, "✅ Wood theme unlocked! Coins remaining: " + coins);
@@ -971,10 +1171,8 @@ public class GameView extends SurfaceView implements Runnable {
                         coins -= 200;
                         themeNeonUnlocked = true;
                         currentTheme = Theme.NEON;
-                        prefs.edit()
-                            .putInt("COINS", coins)
-                            .putBoolean("THEME_NEON", true)
-                            .apply();
+                        playerData.putInt("COINS", coins);
+                        playerData.putBoolean("THEME_NEON", true);
                         generateBlockSprites();
                         playSound(soundClear);
                         Log.d(TAG, "✅ Neon theme unlocked! Coins remaining: " + coins);
@@ -991,10 +1189,8 @@ public class GameView extends SurfaceView implements Runnable {
                         coins -= 300;
                         themeJigsawUnlocked = true;
                         currentTheme = Theme.JIGSAW;
-                        prefs.edit()
-                            .putInt("COINS", coins)
-                            .putBoolean("THEME_JIGSAW", true)
-                            .apply();
+                        playerData.putInt("COINS", coins);
+                        playerData.putBoolean("THEME_JIGSAW", true);
                         generateBlockSprites();
                         playSound(soundClear);
                         Log.d(TAG, "✅ Jigsaw theme unlocked! Coins remaining: " + coins);
@@ -1013,7 +1209,17 @@ public class GameView extends SurfaceView implements Runnable {
                     // mark a pending request and load one if not yet available.
                     triggerRewardedAdForCoins();
                 } else if (btnBuyUndo != null && btnBuyUndo.contains(mx, my)) {
-                    playSound(soundPop);
+                    if (coins >= 50) {
+                        coins -= 50;
+                        undoCharges++;
+                        playerData.putInt("COINS", coins);
+                        playerData.putInt("UNDO_CHARGES", undoCharges);
+                        playSound(soundClear);
+                        Log.d(TAG, "✅ Extra undo bought! Owned: " + undoCharges + ", coins remaining: " + coins);
+                    } else {
+                        playSound(soundLose);
+                        Log.d(TAG, "❌ Not enough coins for extra undo. Need 50, have " + coins);
+                    }
                 } else if (btnBuySkip != null && btnBuySkip.contains(mx, my)) {
                     playSound(soundPop);
                 } else if (btnBuyRevive != null && btnBuyRevive.contains(mx, my)) {
@@ -1031,12 +1237,13 @@ public class GameView extends SurfaceView implements Runnable {
             switch (event.getAction()) {
                 case MotionEvent.ACTION_DOWN:
                     // Check back home button
-                    if (btnBackHome != null && btnBackHome.contains(mx, my)) {
+                    if (btnGameHome != null && btnGameHome.contains(mx, my)) {
                         currentState = GameState.MENU;
                         return true;
                     }
                     
-                    for (Shape s : availableShapes) {
+                    for (Shape s : trayShapes) {
+                        if (s.type == null) continue;
                         float shapeW = s.width * CELL_SIZE * originalShapeScale;
                         float shapeH = s.height * CELL_SIZE * originalShapeScale;
                         if (mx >= s.x - 20 && mx <= s.x + shapeW + 20 && my >= s.y - 20 && my <= s.y + shapeH + 20) {
@@ -1047,6 +1254,7 @@ public class GameView extends SurfaceView implements Runnable {
                             dragOffsetY = (s.height * CELL_SIZE) * 1.5f;
                             draggingShape.x = mx - dragOffsetX;
                             draggingShape.y = my - dragOffsetY;
+                            boardLayerDirty = true; // Lift it out of the tray
                             vibrate(30);
                             break;
                         }
@@ -1061,12 +1269,20 @@ public class GameView extends SurfaceView implements Runnable {
                 case MotionEvent.ACTION_UP:
                     // Check Undo button
                     if (btnUndo != null && btnUndo.contains(mx, my)) {
-                        if (canUndo) {
+                        if (canUndoNow()) {
                             performUndo();
                             playSound(soundPop);
                         }
                         return true;
                     }
+
+                    // Check Redo button
+                    RectF redo = btnRedo;
+                    if (redo != null && redo.contains(mx, my)) {
+                        performRedo();
+                        playSound(soundPop);
+                        return true;
+                    }
                     
                     // Check Skip button
                     if (btnSkip != null && btnSkip.contains(mx, my)) {
@@ -1074,6 +1290,12 @@ public class GameView extends SurfaceView implements Runnable {
                         playSound(soundPop);
                         return true;
                     }
+
+                    // Check Hint button
+                    if (btnHint != null && btnHint.contains(mx, my)) {
+                        requestHint();
+                        return true;
+                    }
                     
                     if (draggingShape != null) {
                         int gx = Math.round((draggingShape.x - MARGIN_X) / CELL_SIZE);
@@ -1086,6 +1308,7 @@ public class GameView extends SurfaceView implements Runnable {
                             draggingShape.y = originalShapeY;
                         }
                         draggingShape = null;
+                        boardLayerDirty = true;
                     }
                     break;
             }
@@ -1093,6 +1316,9 @@ public class GameView extends SurfaceView implements Runnable {
         } catch (Exception e) {
             Log.e(TAG, "Error in onTouchEvent: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            // Whatever the touch changed shows on the next vsync
+            requestRender();
         }
         return true;
     }
@@ -1100,119 +1326,130 @@ public class GameView extends SurfaceView implements Runnable {
     // --- LOGIC ---
 
     private void startLevel(int level) {
-        currentLevel = level;
-        score = 0;
-        comboCount = 0;
-        hasRevived = false;
-        canUndo = false;
-        grid = new int[GRID_SIZE][GRID_SIZE];
+        session.startLevel(level);
         particles.clear();
-        floatingTexts.clear();
-        
-        // Set Theme based on Level
-        if (level == 0) currentTheme = Theme.CLASSIC;
-        else if (level <= 20) currentTheme = Theme.CLASSIC;
-        else if (level <= 40) currentTheme = Theme.WOOD;
-        else if (level <= 60) currentTheme = Theme.NEON;
-        else currentTheme = Theme.JIGSAW;
+        clearFloatingTexts();
         
+        currentTheme = themeForLevel(level);
         generateBlockSprites(); // Regenerate graphics for theme
 
-        if (level == 0) {
-            targetScore = Integer.MAX_VALUE;
-        } else {
-            targetScore = 1000 + (level * 500);
-            if (level > 10) addGarbageBlocks(level);
+        syncTray();
+        checkpoint.save(session);
+        currentState = GameState.PLAYING;
+    }
+
+    // Set Theme based on Level
+    private Theme themeForLevel(int level) {
+        if (level == GameSession.LEVEL_DAILY) return Theme.NEON; // Daily is always Neon
+        if (level == 0) return Theme.CLASSIC;
+        else if (level <= 20) return Theme.CLASSIC;
+        else if (level <= 40) return Theme.WOOD;
+        else if (level <= 60) return Theme.NEON;
+        else return Theme.JIGSAW;
+    }
+
+    // Mapped straight from the APK (stored uncompressed); levels are read in place, never copied to the heap
+    private static LevelCatalog loadLevelCatalog(Context context) {
+        try (AssetFileDescriptor fd = context.getAssets().openFd(LevelCatalog.ASSET_NAME);
+             FileInputStream in = fd.createInputStream()) {
+            return LevelCatalog.wrap(in.getChannel().map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getLength()));
+        } catch (Exception e) {
+            Log.e(TAG, "Level catalog unavailable, generating layouts instead: " + e.getMessage());
+            return null;
         }
+    }
 
-        generateShapes(SCREEN_W);
+    // Cold start: pick up the run that was in progress, before the first frame is drawn
+    private void resumeSavedRun() {
+        if (!session.readSnapshot(checkpoint.load())) return;
+        if (session.getStatus() != GameSession.Status.PLAYING) return;
+        currentTheme = themeForLevel(session.getLevel());
         currentState = GameState.PLAYING;
+        Log.d(TAG, "Resumed run: level " + session.getLevel() + ", score " + session.getScore());
     }
 
     private void startDailyChallenge() {
-        currentLevel = -1; // Daily ID
-        score = 0;
-        comboCount = 0;
-        hasRevived = false;
-        canUndo = false;
-        grid = new int[GRID_SIZE][GRID_SIZE];
         particles.clear();
-        floatingTexts.clear();
-        currentTheme = Theme.NEON; // Daily is always Neon
+        clearFloatingTexts();
+        currentTheme = themeForLevel(GameSession.LEVEL_DAILY);
         generateBlockSprites();
 
-        // Seed random with today's date
-        long seed = Calendar.getInstance().get(Calendar.DAY_OF_YEAR) + Calendar.getInstance().get(Calendar.YEAR);
-        Random dailyRand = new Random(seed);
-        
-        targetScore = 3000; // Hard target
-        
-        // Add specific daily garbage
-        for(int i=0; i<15; i++) {
-            int x = dailyRand.nextInt(GRID_SIZE);
-            int y = dailyRand.nextInt(GRID_SIZE);
-            grid[y][x] = Color.DKGRAY;
-        }
+        // Only reachable once prepareDaily has set it; the button is disabled until then
+        session.startDaily(todaysDaily.seed);
 
-        generateShapes(SCREEN_W);
+        syncTray();
+        checkpoint.save(session);
         currentState = GameState.PLAYING;
     }
 
-    private void addGarbageBlocks(int level) {
-        int blocksToAdd = (level - 10) / 2;
-        if (blocksToAdd > 12) blocksToAdd = 12;
-        Random r = new Random();
-        for(int i=0; i<blocksToAdd; i++) {
-            grid[r.nextInt(GRID_SIZE)][r.nextInt(GRID_SIZE)] = Color.DKGRAY;
+    // Runs on dailyExecutor, the only writer of the daily cache
+    private void prepareDaily() {
+        try {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            todaysDaily = loadDaily(dailyEpochDay);
+            requestRender(); // Enables the Daily button
+        } catch (Exception e) {
+            Log.e(TAG, "Daily challenge error: " + e.getMessage());
         }
     }
 
+    // Any date works, so an archive of past challenges can go through here too
+    private DailyChallenge loadDaily(long epochDay) {
+        DailyChallenge daily = DailyChallenge.forDate(dailyCacheDir, epochDay, SHAPE_COLORS.length, GameSession.DealMode.FAIR);
+        if (!daily.reachable) Log.e(TAG, "Daily " + epochDay + ": no seed reached the target, best " + daily.witnessScore);
+        return daily;
+    }
+
+    private int levelCoinReward(int level) {
+        return 10 + (level * 2);
+    }
+
     private void placeShape(Shape s, int gx, int gy) {
-        // Save state for undo
-        saveStateForUndo();
-        
-        for (Point p : s.blocks) grid[gy + p.y][gx + p.x] = s.color;
-        availableShapes.remove(s);
+        if (!session.place(s.slot, gx, gy)) return;
         playSound(soundPop);
-        checkLines();
-        if (availableShapes.isEmpty()) generateShapes(SCREEN_W);
-        
-        // Enable undo after placing
-        canUndo = true;
-        
+        showLineClear();
+        syncTray();
+        int currentLevel = session.getLevel();
+        if (session.getStatus() == GameSession.Status.PLAYING) {
+            checkpoint.save(session);
+        } else {
+            checkpoint.clear();
+            saveReplay();
+        }
+
         // Win Conditions
-        if (currentLevel > 0 && score >= targetScore) {
+        if (session.getStatus() == GameSession.Status.LEVEL_COMPLETE) {
             currentState = GameState.LEVEL_COMPLETE;
             playSound(soundClear);
             
             // Award coins (10 coins per level)
-            int coinReward = 10 + (currentLevel * 2);
+            int coinReward = levelCoinReward(currentLevel);
             coins += coinReward;
-            prefs.edit().putInt("COINS", coins).apply();
+            playerData.putInt("COINS", coins);
             Log.d(TAG, "Level " + currentLevel + " complete! Earned " + coinReward + " coins. Total: " + coins);
             
             if (currentLevel == maxUnlockedLevel) {
                 maxUnlockedLevel++;
-                prefs.edit().putInt("MAX_LEVEL", maxUnlockedLevel).apply();
+                playerData.putInt("MAX_LEVEL", maxUnlockedLevel);
             }
             // Show ad at levels 3, 6, 9, 12, etc.
             if (currentLevel % 3 == 0 && mainActivity != null) {
                 mainActivity.showInterstitialAd();
             }
-        } else if (currentLevel == -1 && score >= targetScore) {
+        } else if (session.getStatus() == GameSession.Status.DAILY_WIN) {
             currentState = GameState.DAILY_WIN;
             playSound(soundClear);
             
             // Award bonus coins for daily challenge (50 coins)
             coins += 50;
-            prefs.edit().putInt("COINS", coins).apply();
+            playerData.putInt("COINS", coins);
             Log.d(TAG, "Daily challenge complete! Earned 50 coins. Total: " + coins);
             
             isDailyCompleted = true;
-            prefs.edit().putString("LAST_DAILY_WIN", dailyDateString).apply();
+            playerData.putString("LAST_DAILY_WIN", dailyDateString);
         }
         // Lose Condition
-        else if (!canAnyShapeFit()) {
+        else if (session.getStatus() == GameSession.Status.GAME_OVER) {
             currentState = GameState.GAME_OVER;
             playSound(soundLose);
             vibrate(500);
@@ -1224,37 +1461,44 @@ public class GameView extends SurfaceView implements Runnable {
         }
     }
 
-    private void checkLines() {
-        List<Integer> rows = new ArrayList<>();
-        List<Integer> cols = new ArrayList<>();
-        for (int y = 0; y < GRID_SIZE; y++) {
-            boolean full = true;
-            for (int x = 0; x < GRID_SIZE; x++) if (grid[y][x] == 0) full = false;
-            if (full) rows.add(y);
-        }
-        for (int x = 0; x < GRID_SIZE; x++) {
-            boolean full = true;
-            for (int y = 0; y < GRID_SIZE; y++) if (grid[y][x] == 0) full = false;
-            if (full) cols.add(x);
-        }
-        if (!rows.isEmpty() || !cols.isEmpty()) {
-            comboCount++;
-            int points = (rows.size() + cols.size()) * 10 * comboCount;
-            score += points;
-            playSound(soundClear);
-            
-            // Chase Combo Visuals
-            shakeIntensity = 20 + (comboCount * 5);
-            String text = "+" + points;
-            if (comboCount > 2) text = "UNSTOPPABLE!";
-            if (comboCount > 4) text = "LEGENDARY!";
-            floatingTexts.add(new FloatingText(text, SCREEN_W/2, MARGIN_Y + (GRID_SIZE*CELL_SIZE)/2));
-
-            for (int y : rows) for (int x = 0; x < GRID_SIZE; x++) { spawnParticles(x, y, grid[y][x]); grid[y][x] = 0; }
-            for (int x : cols) for (int y = 0; y < GRID_SIZE; y++) { spawnParticles(x, y, grid[y][x]); grid[y][x] = 0; }
-            vibrate(100);
-        } else {
-            comboCount = 0;
+    // Snapshot here (about 4 bytes a move), write on the IO thread
+    private void saveReplay() {
+        final byte[] replay = session.getRecorder().finish(session.getScore());
+        if (replay.length == 0) return;
+        final File file = new File(getContext().getFilesDir(), REPLAY_FILE);
+        ioExecutor.execute(() -> {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(replay);
+            } catch (Exception e) {
+                Log.e(TAG, "Replay save error: " + e.getMessage());
+            }
+        });
+    }
+
+    // Effects for whatever the last move cleared
+    private void showLineClear() {
+        long cleared = session.getLastCleared();
+        if (cleared == 0) return;
+        int comboCount = session.getComboCount();
+        int points = session.getLastPoints();
+        playSound(soundClear);
+        
+        // Chase Combo Visuals
+        shakeIntensity = 20 + (comboCount * 5);
+        String text = "+" + points;
+        if (comboCount > 2) text = "UNSTOPPABLE!";
+        if (comboCount > 4) text = "LEGENDARY!";
+        addFloatingText(text, SCREEN_W/2, MARGIN_Y + (GRID_SIZE*CELL_SIZE)/2);
+
+        spawnClearedParticles(cleared);
+        vibrate(100);
+    }
+
+    private void spawnClearedParticles(long cleared) {
+        Board board = session.getBoard();
+        for (long m = cleared; m != 0; m &= m - 1) {
+            int i = Long.numberOfTrailingZeros(m);
+            spawnParticles(i & 7, i >>> 3, PALETTE[board.colorPlaneAt(i)]);
         }
     }
 
@@ -1282,28 +1526,11 @@ public class GameView extends SurfaceView implements Runnable {
     }
     
     private void performRevive() {
-        hasRevived = true;
         currentState = GameState.PLAYING;
-        int center = GRID_SIZE / 2;
-        for (int y = center - 2; y < center + 2; y++) {
-            for (int x = center - 2; x < center + 2; x++) {
-                if (grid[y][x] != 0) {
-                    spawnParticles(x, y, grid[y][x]);
-                    grid[y][x] = 0;
-                }
-            }
-        }
-        
-        // Generate new shapes after revive
-        availableShapes.clear();
-        for (int i = 0; i < 3; i++) {
-            Shape s = new Shape(ShapeType.getRandom(), SHAPE_COLORS);
-            float slotWidth = getWidth() / 3;
-            float visualWidth = s.width * CELL_SIZE * originalShapeScale;
-            s.x = (i * slotWidth) + (slotWidth - visualWidth) / 2;
-            s.y = BOTTOM_AREA_Y;
-            availableShapes.add(s);
-        }
+        // Clears the centre and deals new shapes
+        spawnClearedParticles(session.revive());
+        syncTray();
+        checkpoint.save(session);
         
         vibrate(200);
         playSound(soundClear);
@@ -1321,11 +1548,11 @@ public class GameView extends SurfaceView implements Runnable {
                             rewardedAd.show(mainActivity, rewardItem -> {
                                 int rewardAmount = 20;
                                 coins += rewardAmount;
-                                prefs.edit().putInt("COINS", coins).apply();
+                                playerData.putInt("COINS", coins);
                                 playSound(soundClear);
                                 vibrate(200);
                                 Log.d(TAG, "✅ Rewarded ad watched! Earned " + rewardAmount + " coins. Total: " + coins);
-                                floatingTexts.add(new FloatingText("💰 +" + rewardAmount + " COINS!", SCREEN_W/2, SCREEN_H/2));
+                                addFloatingText("💰 +" + rewardAmount + " COINS!", SCREEN_W/2, SCREEN_H/2);
                             });
                         } catch (Exception e) {
                             Log.e(TAG, "Error showing rewarded ad on UI thread: " + e.getMessage());
@@ -1341,7 +1568,7 @@ public class GameView extends SurfaceView implements Runnable {
                 pendingRewardForCoins = true;
                 Log.d(TAG, "Rewarded ad not ready yet. Marking pending and loading...");
                 playSound(soundLose);
-                floatingTexts.add(new FloatingText("⏳ Ad loading...", SCREEN_W/2, SCREEN_H/2));
+                addFloatingText("⏳ Ad loading...", SCREEN_W/2, SCREEN_H/2);
                 loadRewardedAd();
             }
         } catch (Exception e) {
@@ -1350,90 +1577,91 @@ public class GameView extends SurfaceView implements Runnable {
         }
     }
     
-    private void saveStateForUndo() {
-        // Deep copy grid
-        for (int y = 0; y < GRID_SIZE; y++) {
-            for (int x = 0; x < GRID_SIZE; x++) {
-                previousGrid[y][x] = grid[y][x];
-            }
-        }
-        
-        // Copy shapes
-        previousShapes.clear();
-        for (Shape s : availableShapes) {
-            previousShapes.add(new Shape(s.type));
-        }
-        
-        previousScore = score;
+    private boolean canUndoNow() {
+        return session.canUndo() && (session.getUndoSteps() == 0 || undoCharges > 0);
     }
-    
+
     private void performUndo() {
-        if (!canUndo) return;
-        
-        // Restore grid
-        for (int y = 0; y < GRID_SIZE; y++) {
-            for (int x = 0; x < GRID_SIZE; x++) {
-                grid[y][x] = previousGrid[y][x];
-            }
-        }
-        
-        // Restore shapes
-        availableShapes.clear();
-        for (Shape s : previousShapes) {
-            availableShapes.add(new Shape(s.type));
+        boolean extraStep = session.getUndoSteps() > 0;
+        if (!session.undo()) return;
+        if (extraStep) {
+            undoCharges--;
+            playerData.putInt("UNDO_CHARGES", undoCharges);
         }
-        generateShapes(SCREEN_W); // Reposition them
-        
-        // Restore score
-        score = previousScore;
-        comboCount = 0;
-        
-        canUndo = false;
+        syncTray();
+        checkpoint.save(session);
+        vibrate(30);
+    }
+
+    private void performRedo() {
+        if (!session.redo()) return;
+        syncTray();
+        checkpoint.save(session);
         vibrate(30);
     }
     
     private void performSkip() {
         // Replace current shapes with new ones
-        availableShapes.clear();
-        generateShapes(SCREEN_W);
-        canUndo = false;
+        session.skip();
+        syncTray();
+        checkpoint.save(session);
         vibrate(30);
     }
 
-    private boolean canAnyShapeFit() {
-        for (Shape s : availableShapes) for (int y = 0; y < GRID_SIZE; y++) for (int x = 0; x < GRID_SIZE; x++) if (canPlace(s, x, y)) return true;
-        return false;
+    // Snapshots the position here and searches it on the hint thread
+    private void requestHint() {
+        final int version = hintVersion;
+        final long occupied = session.getBoard().occupied();
+        final int combo = session.getComboCount();
+        final ShapeType[] tray = new ShapeType[GameSession.TRAY_SIZE];
+        for (int i = 0; i < tray.length; i++) tray[i] = session.getTrayShape(i);
+
+        hintExecutor.execute(() -> {
+            try {
+                boolean found = hintSolver.solve(occupied, tray, combo, HintSolver.DEFAULT_BUDGET_NANOS, hint);
+                if (version != hintVersion) return; // Position changed while searching
+                if (found) {
+                    hintMove = hint.firstMove();
+                    requestRender();
+                    Log.d(TAG, "Hint: " + hint.nodes + " nodes, complete=" + hint.complete);
+                } else {
+                    post(() -> addFloatingText("No moves!", SCREEN_W/2, SCREEN_H/2));
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Hint search error: " + e.getMessage());
+            }
+        });
     }
 
     private boolean canPlace(Shape s, int gx, int gy) {
-        for (Point p : s.blocks) {
-            int tx = gx + p.x;
-            int ty = gy + p.y;
-            if (tx < 0 || tx >= GRID_SIZE || ty < 0 || ty >= GRID_SIZE) return false;
-            if (grid[ty][tx] != 0) return false;
-        }
-        return true;
+        return session.canPlace(s.type, gx, gy);
     }
 
-    private void generateShapes(float screenWidth) {
-        availableShapes.clear();
-        float slotWidth = screenWidth / 3;
-        for (int i = 0; i < 3; i++) {
-            Shape s = new Shape(ShapeType.getRandom(), SHAPE_COLORS);
+    // Point the tray handles at the session's tray, one layout slot per tray slot
+    private void syncTray() {
+        // Any shown hint was for the old position
+        hintVersion++;
+        hintMove = PlacementPolicy.NO_MOVE;
+        float slotWidth = SCREEN_W / GameSession.TRAY_SIZE;
+        for (int i = 0; i < GameSession.TRAY_SIZE; i++) {
+            Shape s = trayShapes[i];
+            s.set(session.getTrayShape(i), session.getTrayColor(i));
+            if (s.type == null) continue;
             float visualWidth = s.width * CELL_SIZE * originalShapeScale;
             s.x = (i * slotWidth) + (slotWidth - visualWidth) / 2;
             s.y = BOTTOM_AREA_Y;
-            availableShapes.add(s);
         }
+        boardLayerDirty = true;
+        requestRender();
     }
 
     // --- THEMED GRAPHICS GENERATION ---
     private void generateBlockSprites() {
         int size = (int) CELL_SIZE;
         if (size <= 0) size = 100;
-        blockSprites.clear();
 
-        for (int color : SHAPE_COLORS) {
+        for (int colorIndex = 1; colorIndex <= SHAPE_COLORS.length; colorIndex++) {
+            int color = PALETTE[colorIndex];
             Bitmap bmp = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
             Canvas c = new Canvas(bmp);
             Paint p = new Paint();
@@ -1475,46 +1703,46 @@ public class GameView extends SurfaceView implements Runnable {
                 hl.setShader(new LinearGradient(0, 0, size, size, Color.argb(150, 255, 255, 255), Color.TRANSPARENT, Shader.TileMode.CLAMP));
                 c.drawRoundRect(rect, 15, 15, hl);
             }
-            blockSprites.put(color, bmp);
+            blockSprites[colorIndex] = bmp;
         }
         // Garbage Block
         Bitmap gray = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
         Canvas c = new Canvas(gray);
         Paint p = new Paint(); p.setColor(Color.DKGRAY);
         c.drawRoundRect(new RectF(2,2,size-2,size-2), 15, 15, p);
-        blockSprites.put(Color.DKGRAY, gray);
+        blockSprites[GARBAGE_INDEX] = gray;
+        boardLayerDirty = true;
     }
 
-    private void drawGrid(Canvas canvas) {
+    private void drawBlocks(Canvas canvas) {
+        Board board = session.getBoard();
         for (int y = 0; y < GRID_SIZE; y++) {
             for (int x = 0; x < GRID_SIZE; x++) {
+                int colorIndex = board.colorAt(x, y);
+                if (colorIndex == Board.COLOR_NONE) continue;
+                Bitmap bmp = blockSprites[colorIndex];
+                if (bmp == null) continue;
                 float px = MARGIN_X + x * CELL_SIZE;
                 float py = MARGIN_Y + y * CELL_SIZE;
-                paint.setColor(COLOR_GRID);
-                paint.setStyle(Paint.Style.FILL);
-                RectF rect = new RectF(px, py, px + CELL_SIZE - 4, py + CELL_SIZE - 4);
-                canvas.drawRoundRect(rect, 15, 15, paint);
-                if (grid[y][x] != 0) {
-                    Bitmap bmp = blockSprites.get(grid[y][x]);
-                    if (bmp != null) {
-                        RectF dest = new RectF(px, py, px + CELL_SIZE - 4, py + CELL_SIZE - 4);
-                        canvas.drawBitmap(bmp, null, dest, null);
-                    }
-                }
+                cellRect.set(px, py, px + CELL_SIZE - 4, py + CELL_SIZE - 4);
+                canvas.drawBitmap(bmp, null, cellRect, null);
             }
         }
     }
 
     private void drawShape(Canvas canvas, Shape s, float startX, float startY, float size, int alpha) {
+        drawShape(canvas, s.type, s.colorIndex, startX, startY, size, alpha);
+    }
+
+    private void drawShape(Canvas canvas, ShapeType type, int colorIndex, float startX, float startY, float size, int alpha) {
+        Bitmap bmp = blockSprites[colorIndex];
+        if (bmp == null) return;
         paint.setAlpha(alpha);
-        for (Point p : s.blocks) {
-            float px = startX + p.x * size;
-            float py = startY + p.y * size;
-            Bitmap bmp = blockSprites.get(s.color);
-            if (bmp != null) {
-                RectF dest = new RectF(px, py, px + size - 4, py + size - 4);
-                canvas.drawBitmap(bmp, null, dest, paint);
-            }
+        for (int i = 0; i < type.cellCount(); i++) {
+            float px = startX + type.cellX(i) * size;
+            float py = startY + type.cellY(i) * size;
+            cellRect.set(px, py, px + size - 4, py + size - 4);
+            canvas.drawBitmap(bmp, null, cellRect, paint);
         }
         paint.setAlpha(255);
     }
@@ -1522,44 +1750,77 @@ public class GameView extends SurfaceView implements Runnable {
     private void spawnParticles(int gx, int gy, int color) {
         float cx = MARGIN_X + gx * CELL_SIZE + CELL_SIZE/2;
         float cy = MARGIN_Y + gy * CELL_SIZE + CELL_SIZE/2;
-        for (int i = 0; i < 8; i++) particles.add(new Particle(cx, cy, color));
+        particles.spawn(cx, cy, color, PARTICLES_PER_CELL, session.getCosmeticRandom());
     }
 
     private void vibrate(int ms) { if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) vibrator.vibrate(VibrationEffect.createOneShot(ms, VibrationEffect.DEFAULT_AMPLITUDE)); else vibrator.vibrate(ms); }
-    private void control() { try { Thread.sleep(16); } catch (InterruptedException e) {} }
-    public void resume() { isPlaying = true; gameThread = new Thread(this); gameThread.start(); }
-    public void pause() { isPlaying = false; try { gameThread.join(); } catch (Exception e) {} }
+
+    public void resume() {
+        if (renderThread != null) return;
+        isPlaying = true;
+        animatingLastFrame = false;
+        renderThread = new HandlerThread("GameRender", Process.THREAD_PRIORITY_DISPLAY);
+        renderThread.start();
+        Handler handler = new Handler(renderThread.getLooper());
+        // Choreographer is per looper, so it has to be fetched on the render thread itself
+        handler.post(() -> choreographer = Choreographer.getInstance());
+        renderHandler = handler;
+        requestRender();
+    }
+
+    public void pause() {
+        isPlaying = false;
+        renderHandler = null;
+        frameRequested.set(false);
+        if (renderThread == null) return;
+        // A frame in progress finishes; doFrame sees isPlaying and requests no further frame
+        renderThread.quitSafely();
+        try { renderThread.join(); } catch (InterruptedException e) {}
+        renderThread = null;
+    }
+
+    // Called from the activity's onPause so batched player data is not left waiting on the timer
+    public void flushPlayerData() { if (playerData != null) playerData.flush(); }
+
+    // Called from the activity's onDestroy. Pending checkpoint, player data and replay writes are
+    // already queued on ioExecutor and still run; searches are dropped (a half-written daily cache is a temp file)
+    public void release() {
+        pause();
+        flushPlayerData();
+        ioExecutor.shutdown();
+        dailyExecutor.shutdownNow();
+        hintExecutor.shutdownNow();
+    }
+    // --- Test hooks (FrameAllocationTest) ---
+    void startLevelForTest(int level) { startLevel(level); }
+    void showStateForTest(GameState state) { currentState = state; }
+    // One frame as doFrame runs it, drawn into the given canvas instead of the surface
+    void drawFrameForTest(Canvas canvas) { update(1); drawFrame(canvas); }
+
     @Override protected void onAttachedToWindow() { super.onAttachedToWindow(); resume(); }
     @Override protected void onDetachedFromWindow() { super.onDetachedFromWindow(); pause(); }
 }
 
 // --- HELPER CLASSES ---
-class Particle {
-    float x, y, vx, vy, size; int color, alpha;
-    public Particle(float x, float y, int color) {
-        this.x = x; this.y = y; this.color = color; this.alpha = 255;
-        this.size = 10 + (float)Math.random() * 15;
-        double angle = Math.random() * Math.PI * 2;
-        float speed = 5 + (float)Math.random() * 15;
-        this.vx = (float)Math.cos(angle) * speed;
-        this.vy = (float)Math.sin(angle) * speed;
-    }
-    public void update() { x += vx; y += vy; vy += 1; alpha -= 15; }
-    public void draw(Canvas c, Paint p) { p.setColor(color); p.setAlpha(Math.max(0, alpha)); c.drawRect(x, y, x+size, y+size, p); p.setAlpha(255); }
-}
 class FloatingText {
-    String text; float x, y; int alpha = 255;
+    String text; float x, y, alpha = 255;
     public FloatingText(String text, float x, float y) { this.text = text; this.x = x; this.y = y; }
-    public void update() { y -= 5; alpha -= 5; }
-    public void draw(Canvas c, Paint p) { p.setColor(Color.WHITE); p.setTextSize(80); p.setFakeBoldText(true); p.setAlpha(Math.max(0, alpha)); c.drawText(text, x, y, p); p.setAlpha(255); }
+    public void update(float steps) { y -= 5 * steps; alpha -= 5 * steps; }
+    // Blits the style's cached bitmap of the text, so repeats ("LEGENDARY!") are never re-shaped
+    public void draw(Canvas c, TextCache cache, TextCache.Style style) { cache.drawCentered(c, style, text, x, y, Math.max(0, (int) alpha)); }
+}
+// prefix + value + suffix; the string is only rebuilt when the value changes
+class IntLabel {
+    private final String prefix, suffix; private int value; private String text;
+    IntLabel(String prefix, String suffix) { this.prefix = prefix; this.suffix = suffix; this.value = 0; this.text = prefix + 0 + suffix; }
+    String of(int v) { if (v != value) { value = v; text = prefix + v + suffix; } return text; }
 }
+// Tray handle: reused across deals, geometry comes from the ShapeType catalog
 class Shape {
-    Point[] blocks; int color; float x, y; int width, height; ShapeType type;
-    public Shape(ShapeType type, int[] colors) { this.type = type; this.blocks = type.blocks; this.color = colors[new Random().nextInt(colors.length)]; calculateDimensions(); }
-    public Shape(ShapeType type) { this.type = type; this.blocks = type.blocks; calculateDimensions(); }
-    private void calculateDimensions() { int maxX = 0, maxY = 0; for (Point p : blocks) { if (p.x > maxX) maxX = p.x; if (p.y > maxY) maxY = p.y; } this.width = maxX + 1; this.height = maxY + 1; }
+    final int slot; ShapeType type; int colorIndex; float x, y; int width, height;
+    public Shape(int slot) { this.slot = slot; }
+    void set(ShapeType type, int colorIndex) {
+        this.type = type; this.colorIndex = colorIndex;
+        this.width = type != null ? type.width : 0; this.height = type != null ? type.height : 0;
+    }
 }
-enum ShapeType {
-    DOT(new Point[]{new Point(0,0)}), LINE_2(new Point[]{new Point(0,0), new Point(1,0)}), LINE_3(new Point[]{new Point(0,0), new Point(1,0), new Point(2,0)}), LINE_4(new Point[]{new Point(0,0), new Point(1,0), new Point(2,0), new Point(3,0)}), SQUARE_2(new Point[]{new Point(0,0), new Point(0,1), new Point(1,0), new Point(1,1)}), SQUARE_3(new Point[]{new Point(0,0), new Point(0,1), new Point(0,2), new Point(1,0), new Point(1,1), new Point(1,2), new Point(2,0), new Point(2,1), new Point(2,2)}), L_SMALL(new Point[]{new Point(0,0), new Point(0,1), new Point(1,1)}), L_LARGE(new Point[]{new Point(0,0), new Point(0,1), new Point(0,2), new Point(1,2)}), T_SHAPE(new Point[]{new Point(0,0), new Point(1,0), new Point(2,0), new Point(1,1)}), Z_SHAPE(new Point[]{new Point(0,0), new Point(1,0), new Point(1,1), new Point(2,1)}), S_SHAPE(new Point[]{new Point(0,1), new Point(1,1), new Point(1,0), new Point(2,0)});
-    Point[] blocks; ShapeType(Point[] blocks) { this.blocks = blocks; } static ShapeType getRandom() { return values()[new Random().nextInt(values().length)]; }
-}
\ No newline at end of file
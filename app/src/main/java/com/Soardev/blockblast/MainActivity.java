@@ -238,6 +238,7 @@ public class MainActivity extends Activity {
     
     @Override
     protected void onPause() {
+        if (gameView != null) gameView.flushPlayerData();
         if (bannerAd != null) bannerAd.pause();
         super.onPause();
     }
@@ -251,6 +252,7 @@ public class MainActivity extends Activity {
     
     @Override
     protected void onDestroy() {
+        if (gameView != null) gameView.release();
         if (bannerAd != null) bannerAd.destroy();
         super.onDestroy();
     }
@@ -0,0 +1,120 @@
+package com.Soardev.blockblast;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import java.util.Random;
+
+/**
+ * The line-clear particles, as parallel primitive arrays of fixed capacity.
+ *
+ * Live particles are packed into [0, count); a dead one is overwritten by
+ * the last live one, so removal is O(1) and nothing is shifted or
+ * allocated after construction. When the pool is full new particles are
+ * dropped: by then the screen is already covered.
+ *
+ * All live particles are drawn with one Canvas.drawVertices call: each is
+ * a quad of two triangles with its color and fade baked into the vertex
+ * colors, so there is no per-particle paint state or draw call.
+ *
+ * Spawned from touch handling, updated and drawn on the render thread;
+ * every method holds the pool's lock.
+ */
+final class ParticlePool {
+
+    static final int CAPACITY = 1024;
+
+    private final float[] x = new float[CAPACITY];
+    private final float[] y = new float[CAPACITY];
+    private final float[] vx = new float[CAPACITY];
+    private final float[] vy = new float[CAPACITY];
+    private final float[] size = new float[CAPACITY];
+    private final float[] alpha = new float[CAPACITY];
+    private final int[] color = new int[CAPACITY];
+    private int count;
+
+    // Draw batch: 4 vertices (8 floats) and 6 indices per particle
+    private final float[] vertices = new float[CAPACITY * 8];
+    private final int[] vertexColors = new int[CAPACITY * 4];
+    private final short[] indices = new short[CAPACITY * 6];
+    private final Paint paint = new Paint();
+
+    ParticlePool() {
+        // The quads never change topology, so the index buffer is built once
+        for (int i = 0; i < CAPACITY; i++) {
+            short v = (short) (i * 4);
+            int k = i * 6;
+            indices[k] = v;
+            indices[k + 1] = (short) (v + 1);
+            indices[k + 2] = (short) (v + 2);
+            indices[k + 3] = v;
+            indices[k + 4] = (short) (v + 2);
+            indices[k + 5] = (short) (v + 3);
+        }
+    }
+
+    /** {@code n} particles bursting from (cx, cy) in random directions. */
+    synchronized void spawn(float cx, float cy, int rgb, int n, Random random) {
+        for (int k = 0; k < n && count < CAPACITY; k++) {
+            int i = count++;
+            x[i] = cx;
+            y[i] = cy;
+            color[i] = rgb;
+            alpha[i] = 255;
+            size[i] = 10 + random.nextFloat() * 15;
+            double angle = random.nextDouble() * Math.PI * 2;
+            float speed = 5 + random.nextFloat() * 15;
+            vx[i] = (float) Math.cos(angle) * speed;
+            vy[i] = (float) Math.sin(angle) * speed;
+        }
+    }
+
+    /** Advances by {@code steps} 60 Hz frames and drops the faded particles. */
+    synchronized void update(float steps) {
+        int i = 0;
+        while (i < count) {
+            x[i] += vx[i] * steps;
+            y[i] += vy[i] * steps;
+            vy[i] += steps; // Gravity
+            alpha[i] -= 15 * steps;
+            if (alpha[i] > 0) {
+                i++;
+                continue;
+            }
+            // Swap-remove: the last particle, not yet stepped, takes this slot and is stepped next
+            int last = --count;
+            x[i] = x[last];
+            y[i] = y[last];
+            vx[i] = vx[last];
+            vy[i] = vy[last];
+            size[i] = size[last];
+            alpha[i] = alpha[last];
+            color[i] = color[last];
+        }
+    }
+
+    synchronized void draw(Canvas canvas) {
+        if (count == 0) return;
+        for (int i = 0; i < count; i++) {
+            float left = x[i], top = y[i], right = left + size[i], bottom = top + size[i];
+            int v = i * 8;
+            vertices[v] = left;      vertices[v + 1] = top;
+            vertices[v + 2] = right; vertices[v + 3] = top;
+            vertices[v + 4] = right; vertices[v + 5] = bottom;
+            vertices[v + 6] = left;  vertices[v + 7] = bottom;
+            int argb = ((int) alpha[i] << 24) | (color[i] & 0xFFFFFF);
+            int c = i * 4;
+            vertexColors[c] = argb;
+            vertexColors[c + 1] = argb;
+            vertexColors[c + 2] = argb;
+            vertexColors[c + 3] = argb;
+        }
+        // vertexCount is in floats (two per vertex); colors are one per vertex
+        canvas.drawVertices(Canvas.VertexMode.TRIANGLES, count * 8, vertices, 0, null, 0,
+                vertexColors, 0, indices, 0, count * 6, paint);
+    }
+
+    synchronized boolean isEmpty() { return count == 0; }
+
+    synchronized void clear() { count = 0; }
+}
@@ -0,0 +1,126 @@
+package com.Soardev.blockblast;
+
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind cache over the player's SharedPreferences (coins, unlocks,
+ * settings).
+ *
+ * Reads come from memory once a key has been seen, so a value is visible
+ * the moment it is put. Puts only mark the key dirty and arm one delayed
+ * flush; everything dirtied before it runs goes out in a single commit on
+ * the IO executor, at most once per {@link #MIN_FLUSH_INTERVAL_MS}.
+ * {@link #flush()} skips the wait, e.g. from onPause.
+ */
+final class PlayerData {
+
+    private static final String TAG = "PlayerData";
+
+    // Lets the writes of one event (coins + unlock) land in the same commit
+    static final long COALESCE_MS = 250;
+    static final long MIN_FLUSH_INTERVAL_MS = 2000;
+
+    private final SharedPreferences prefs;
+    private final ScheduledExecutorService executor;
+
+    // All guarded by this
+    private final Map<String, Object> values = new HashMap<>();
+    private final Map<String, Object> dirty = new HashMap<>();
+    private boolean flushScheduled;
+    private long lastFlushMillis;
+
+    PlayerData(SharedPreferences prefs, ScheduledExecutorService executor) {
+        this.prefs = prefs;
+        this.executor = executor;
+    }
+
+    // --- Reads ---
+
+    synchronized int getInt(String key, int defaultValue) {
+        Object v = values.get(key);
+        if (v == null) {
+            v = prefs.getInt(key, defaultValue);
+            values.put(key, v);
+        }
+        return (Integer) v;
+    }
+
+    synchronized boolean getBoolean(String key, boolean defaultValue) {
+        Object v = values.get(key);
+        if (v == null) {
+            v = prefs.getBoolean(key, defaultValue);
+            values.put(key, v);
+        }
+        return (Boolean) v;
+    }
+
+    synchronized String getString(String key, String defaultValue) {
+        Object v = values.get(key);
+        if (v == null) {
+            v = prefs.getString(key, defaultValue);
+            if (v == null) return null;
+            values.put(key, v);
+        }
+        return (String) v;
+    }
+
+    // --- Writes ---
+
+    void putInt(String key, int value) { put(key, value); }
+    void putBoolean(String key, boolean value) { put(key, value); }
+    void putString(String key, String value) { put(key, value); }
+
+    private synchronized void put(String key, Object value) {
+        values.put(key, value);
+        dirty.put(key, value);
+        scheduleWrite();
+    }
+
+    private void scheduleWrite() {
+        if (flushScheduled) return;
+        flushScheduled = true;
+        long wait = Math.max(COALESCE_MS, lastFlushMillis + MIN_FLUSH_INTERVAL_MS - System.currentTimeMillis());
+        executor.schedule(this::write, wait, TimeUnit.MILLISECONDS);
+    }
+
+    /** Writes pending changes now (still on the executor), e.g. when the activity pauses. */
+    synchronized void flush() {
+        if (dirty.isEmpty()) return;
+        flushScheduled = true;
+        executor.execute(this::write);
+    }
+
+    private void write() {
+        Map<String, Object> batch;
+        synchronized (this) {
+            flushScheduled = false;
+            if (dirty.isEmpty()) return;
+            batch = new HashMap<>(dirty);
+            dirty.clear();
+            lastFlushMillis = System.currentTimeMillis();
+        }
+        SharedPreferences.Editor editor = prefs.edit();
+        for (Map.Entry<String, Object> e : batch.entrySet()) {
+            Object v = e.getValue();
+            if (v instanceof Integer) editor.putInt(e.getKey(), (Integer) v);
+            else if (v instanceof Boolean) editor.putBoolean(e.getKey(), (Boolean) v);
+            else editor.putString(e.getKey(), (String) v);
+        }
+        // Already off the UI thread, so commit() rather than apply(): no queued work for onPause to wait on
+        if (!editor.commit()) {
+            Log.e(TAG, "Player data commit failed; will retry");
+            synchronized (this) {
+                for (Map.Entry<String, Object> e : batch.entrySet()) {
+                    if (!dirty.containsKey(e.getKey())) dirty.put(e.getKey(), e.getValue());
+                }
+                scheduleWrite();
+            }
+        }
+    }
+}
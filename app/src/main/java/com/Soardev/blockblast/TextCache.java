@@ -0,0 +1,81 @@
+package com.Soardev.blockblast;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Labels rasterized once and then blitted, keyed by style and text.
+ *
+ * Shaping text (emoji especially) costs far more than drawing a bitmap, and
+ * most labels are the same from one frame to the next. Each {@link Style}
+ * owns a Paint configured once and a small LRU of bitmaps for the strings
+ * drawn in it, so a label is only re-rasterized when its text changes, and
+ * a string seen recently (a floating "LEGENDARY!", the old score after an
+ * undo) comes back without shaping at all.
+ *
+ * Render thread only.
+ */
+final class TextCache {
+
+    // Room for antialiasing and fake bold around the glyph box
+    private static final int PAD = 4;
+
+    /** A text size, color and weight, and the labels drawn in it. */
+    static final class Style {
+        final Paint paint;
+        private final Paint.FontMetrics metrics;
+        private final Map<String, Bitmap> labels;
+
+        /** {@code capacity}: how many distinct strings stay rasterized; the least recently drawn go first. */
+        Style(float textSize, int color, boolean bold, int capacity) {
+            paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setTextSize(textSize);
+            paint.setColor(color);
+            paint.setFakeBoldText(bold);
+            metrics = paint.getFontMetrics();
+            labels = new LinkedHashMap<String, Bitmap>(capacity + 1, 1f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bitmap> eldest) {
+                    if (size() <= capacity) return false;
+                    eldest.getValue().recycle();
+                    return true;
+                }
+            };
+        }
+
+        Bitmap label(String text) {
+            Bitmap bmp = labels.get(text);
+            if (bmp == null) {
+                int width = (int) Math.ceil(paint.measureText(text)) + 2 * PAD;
+                int height = (int) Math.ceil(metrics.bottom - metrics.top) + 2 * PAD;
+                bmp = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                new Canvas(bmp).drawText(text, PAD, PAD - metrics.top, paint);
+                labels.put(text, bmp);
+            }
+            return bmp;
+        }
+    }
+
+    private final Paint blit = new Paint();
+
+    /** Like drawText with Align.CENTER: centered on x, baseline at y. */
+    void drawCentered(Canvas canvas, Style style, String text, float x, float y) {
+        drawCentered(canvas, style, text, x, y, 255);
+    }
+
+    void drawCentered(Canvas canvas, Style style, String text, float x, float y, int alpha) {
+        Bitmap bmp = style.label(text);
+        blit.setAlpha(alpha);
+        canvas.drawBitmap(bmp, x - bmp.getWidth() / 2f, y + style.metrics.top - PAD, blit);
+    }
+
+    /** Like drawText with Align.LEFT: starting at x, baseline at y. */
+    void drawLeft(Canvas canvas, Style style, String text, float x, float y) {
+        blit.setAlpha(255);
+        canvas.drawBitmap(style.label(text), x - PAD, y + style.metrics.top - PAD, blit);
+    }
+}
@@ -0,0 +1,54 @@
+package com.Soardev.blockblast.core;
+
+/** Reproducible board states for the benchmarks. */
+public enum BoardFixture {
+    /** Fresh Classic run. */
+    EMPTY,
+    /** 2x2 checkerboard: 32 cells filled, no line close to full, small pieces still fit. */
+    HALF_FULL,
+    /** Everything filled except the diagonal; only a DOT fits, and it is dealt last. */
+    NEAR_GAME_OVER,
+    /** Adventure level 400 with its garbage blocks. */
+    LEVEL_400;
+
+    static final int COLORS = 9;
+    static final long SEED = 0x5EEDL;
+
+    GameSession create() {
+        GameSession session = new GameSession(COLORS, SEED);
+        switch (this) {
+            case EMPTY:
+                session.startLevel(GameSession.LEVEL_CLASSIC);
+                break;
+            case HALF_FULL:
+                session.startLevel(GameSession.LEVEL_CLASSIC);
+                for (int y = 0; y < Board.SIZE; y++) {
+                    for (int x = 0; x < Board.SIZE; x++) {
+                        if ((((x >> 1) + (y >> 1)) & 1) == 0) session.getBoard().set(x, y, 1 + (x % COLORS));
+                    }
+                }
+                session.setTray(0, ShapeType.SQUARE_2, 1);
+                session.setTray(1, ShapeType.L_SMALL, 2);
+                session.setTray(2, ShapeType.LINE_2, 3);
+                break;
+            case NEAR_GAME_OVER:
+                session.startLevel(GameSession.LEVEL_CLASSIC);
+                for (int y = 0; y < Board.SIZE; y++) {
+                    for (int x = 0; x < Board.SIZE; x++) {
+                        if (x != y) session.getBoard().set(x, y, 1 + (y % COLORS));
+                    }
+                }
+                // Worst case for a full legal-move scan: two shapes that test every anchor and fail
+                session.setTray(0, ShapeType.SQUARE_3, 1);
+                session.setTray(1, ShapeType.L_LARGE, 2);
+                session.setTray(2, ShapeType.DOT, 3);
+                break;
+            case LEVEL_400:
+                session.startLevel(400);
+                break;
+        }
+        // Make the fixture itself the position undo() returns to
+        session.saveStateForUndo();
+        return session;
+    }
+}
@@ -0,0 +1,106 @@
+package com.Soardev.blockblast.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work done between a finger lifting and the next frame: the legality
+ * test, the line check, the placement itself and the game-over scan, plus
+ * dealing and the undo snapshot. Run with {@code -prof gc} (the default in
+ * build.gradle) to see the allocation rate next to ops/s.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MoveResolutionBenchmark {
+
+    @Param({"EMPTY", "HALF_FULL", "NEAR_GAME_OVER", "LEVEL_400"})
+    public BoardFixture fixture;
+
+    private GameSession session;
+    // Same position, dealing with DealMode.FAIR
+    private GameSession fairSession;
+    private ShapeType probeType;
+    // A legal move on the fixture, or slot -1 when nothing fits
+    private int moveSlot = -1, moveX, moveY;
+    private long moveMask;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        session = fixture.create();
+        fairSession = fixture.create();
+        fairSession.setDealMode(GameSession.DealMode.FAIR);
+        probeType = session.getTrayShape(0);
+        for (int slot = 0; slot < GameSession.TRAY_SIZE && moveSlot < 0; slot++) {
+            for (int i = 0; i < Board.CELLS; i++) {
+                if (session.canPlace(slot, i & 7, i >>> 3)) {
+                    moveSlot = slot;
+                    moveX = i & 7;
+                    moveY = i >>> 3;
+                    moveMask = session.getTrayShape(slot).maskAt(moveX, moveY);
+                    break;
+                }
+            }
+        }
+    }
+
+    /** One tray shape tested against all 64 anchors, as a drag sweep would. */
+    @Benchmark
+    public int canPlace() {
+        int legal = 0;
+        for (int gy = 0; gy < Board.SIZE; gy++) {
+            for (int gx = 0; gx < Board.SIZE; gx++) {
+                if (session.canPlace(probeType, gx, gy)) legal++;
+            }
+        }
+        return legal;
+    }
+
+    @Benchmark
+    public boolean canAnyShapeFit() {
+        return session.canAnyShapeFit();
+    }
+
+    /** Full-line detection for the footprint of the fixture's legal move. */
+    @Benchmark
+    public long checkLines() {
+        return session.getBoard().fullLinesThrough(moveMask);
+    }
+
+    /** place() followed by undo() so every invocation starts from the fixture. */
+    @Benchmark
+    public boolean placeShape() {
+        if (moveSlot < 0) return false;
+        boolean placed = session.place(moveSlot, moveX, moveY);
+        session.undo();
+        return placed;
+    }
+
+    @Benchmark
+    public ShapeType generateShapes() {
+        session.deal();
+        return session.getTrayShape(0);
+    }
+
+    /** The fair deal runs inside place() whenever the tray empties, so it must stay cheap. */
+    @Benchmark
+    public ShapeType generateShapesFair() {
+        fairSession.deal();
+        return fairSession.getTrayShape(0);
+    }
+
+    @Benchmark
+    public int saveStateForUndo() {
+        session.saveStateForUndo();
+        return session.getScore();
+    }
+}
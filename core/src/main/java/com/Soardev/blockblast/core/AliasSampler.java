@@ -0,0 +1,68 @@
+package com.Soardev.blockblast.core;
+
+import java.util.Random;
+
+/**
+ * Walker's alias method over integer weights (Vose's construction): O(n)
+ * to build, two random ints per draw regardless of n.
+ *
+ * All arithmetic is integer, so the same weights and random stream give the
+ * same draws on every device, which replays and daily seeds depend on.
+ * Arrays are sized once; rebuilding allocates nothing.
+ */
+final class AliasSampler {
+
+    private final int[] outcome;   // column -> outcome it mainly stands for
+    private final int[] alias;     // column -> outcome taken above the threshold
+    private final int[] threshold; // column -> cut point in [0, total]
+    private final int[] small, large, scaled;
+    private int columns;
+    private int total;
+
+    AliasSampler(int capacity) {
+        outcome = new int[capacity];
+        alias = new int[capacity];
+        threshold = new int[capacity];
+        small = new int[capacity];
+        large = new int[capacity];
+        scaled = new int[capacity];
+    }
+
+    /** Rebuilds over the outcomes whose bit is set in {@code include}; returns false if their weights sum to 0. */
+    boolean build(int[] weights, int include) {
+        columns = 0;
+        total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if ((include & (1 << i)) == 0 || weights[i] <= 0) continue;
+            outcome[columns++] = i;
+            total += weights[i];
+        }
+        if (columns == 0) return false;
+
+        // Each column holds `total` units; an outcome with weight w needs w * columns of them
+        int smallCount = 0, largeCount = 0;
+        for (int c = 0; c < columns; c++) {
+            scaled[c] = weights[outcome[c]] * columns;
+            if (scaled[c] < total) small[smallCount++] = c;
+            else large[largeCount++] = c;
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount], l = large[largeCount - 1];
+            threshold[s] = scaled[s];
+            alias[s] = outcome[l];
+            scaled[l] -= total - scaled[s];
+            if (scaled[l] < total) {
+                largeCount--;
+                small[smallCount++] = l;
+            }
+        }
+        while (largeCount > 0) threshold[large[--largeCount]] = total;
+        while (smallCount > 0) threshold[small[--smallCount]] = total;
+        return true;
+    }
+
+    int sample(Random random) {
+        int c = random.nextInt(columns);
+        return random.nextInt(total) < threshold[c] ? outcome[c] : alias[c];
+    }
+}
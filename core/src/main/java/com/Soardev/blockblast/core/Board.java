@@ -0,0 +1,163 @@
+package com.Soardev.blockblast.core;
+
+import java.util.Random;
+
+/**
+ * 8x8 bitboard. Bit (y * 8 + x) of {@link #occupied} is set when the cell is
+ * filled; the color of each cell lives in a separate nibble-packed plane so
+ * that placement tests, line detection and clears never touch it.
+ */
+public final class Board {
+
+    public static final int SIZE = 8;
+    public static final int CELLS = SIZE * SIZE;
+
+    public static final long ROW_0 = 0xFFL;
+    public static final long COL_0 = 0x0101010101010101L;
+
+    // Palette index 0 is "empty"; indices 1..15 are resolved by the renderer.
+    public static final int COLOR_NONE = 0;
+
+    long occupied;
+    // 64 cells x 4 bits = 4 longs
+    final long[] colors = new long[4];
+    // Filled-cell count per row / column, kept in step with occupied
+    final byte[] rowFill = new byte[SIZE];
+    final byte[] colFill = new byte[SIZE];
+
+    public static int index(int x, int y) { return (y << 3) | x; }
+    public static long bit(int x, int y) { return 1L << index(x, y); }
+    public static long rowMask(int y) { return ROW_0 << (y << 3); }
+    public static long colMask(int x) { return COL_0 << x; }
+
+    /** {@code count} distinct random cells with no complete row or column, e.g. for garbage. */
+    public static long scatter(Random random, int count) {
+        while (true) {
+            long cells = 0;
+            while (Long.bitCount(cells) < count) cells |= 1L << random.nextInt(CELLS);
+            boolean fullLine = false;
+            for (int i = 0; i < SIZE && !fullLine; i++) {
+                fullLine = (cells & rowMask(i)) == rowMask(i) || (cells & colMask(i)) == colMask(i);
+            }
+            if (!fullLine) return cells;
+        }
+    }
+
+    public long occupied() { return occupied; }
+
+    public boolean isEmpty(int x, int y) { return (occupied & bit(x, y)) == 0; }
+
+    public boolean fits(long mask) { return (occupied & mask) == 0; }
+
+    public int count() { return Long.bitCount(occupied); }
+
+    public int colorAt(int x, int y) { return colorAt(index(x, y)); }
+
+    public int colorAt(int i) {
+        if ((occupied & (1L << i)) == 0) return COLOR_NONE;
+        return colorPlaneAt(i);
+    }
+
+    /**
+     * Color last written to cell {@code i}, ignoring occupancy. Clears leave
+     * the plane untouched, so this still answers for cells that were just
+     * cleared (used for particle colors).
+     */
+    public int colorPlaneAt(int i) {
+        return (int) (colors[i >>> 4] >>> ((i & 15) << 2)) & 0xF;
+    }
+
+    public void set(int x, int y, int color) { place(bit(x, y), color); }
+
+    /** Fills every cell in {@code mask} with {@code color}. */
+    public void place(long mask, int color) {
+        long added = mask & ~occupied;
+        occupied |= mask;
+        long m = mask;
+        while (m != 0) {
+            int i = Long.numberOfTrailingZeros(m);
+            int shift = (i & 15) << 2;
+            colors[i >>> 4] = (colors[i >>> 4] & ~(0xFL << shift)) | ((long) color << shift);
+            if ((added & (1L << i)) != 0) {
+                rowFill[i >>> 3]++;
+                colFill[i & 7]++;
+            }
+            m &= m - 1;
+        }
+    }
+
+    /** Empties every cell in {@code mask}. The color plane is left as-is; occupancy is authoritative. */
+    public void clear(long mask) {
+        long removed = mask & occupied;
+        occupied &= ~mask;
+        for (long m = removed; m != 0; m &= m - 1) {
+            int i = Long.numberOfTrailingZeros(m);
+            rowFill[i >>> 3]--;
+            colFill[i & 7]--;
+        }
+    }
+
+    /**
+     * Cells of every full row or column that {@code touched} passes through.
+     * Only the lines under the last placement can have become full, so this
+     * reads at most 2 * 8 counters regardless of how cluttered the board is.
+     */
+    public long fullLinesThrough(long touched) {
+        int rows = 0, cols = 0;
+        for (long m = touched; m != 0; m &= m - 1) {
+            int i = Long.numberOfTrailingZeros(m);
+            rows |= 1 << (i >>> 3);
+            cols |= 1 << (i & 7);
+        }
+        int fullRows = 0, fullCols = 0;
+        for (int r = rows; r != 0; r &= r - 1) {
+            int y = Integer.numberOfTrailingZeros(r);
+            if (rowFill[y] == SIZE) fullRows |= 1 << y;
+        }
+        for (int c = cols; c != 0; c &= c - 1) {
+            int x = Integer.numberOfTrailingZeros(c);
+            if (colFill[x] == SIZE) fullCols |= 1 << x;
+        }
+        return linesMask(fullRows, fullCols);
+    }
+
+    /** Number of distinct full rows plus full columns covered by {@code lines}. */
+    public static int lineCount(long lines) {
+        // A full row contributes a full byte; a full column a full bit-column.
+        long r = lines;
+        r &= r >>> 4;
+        r &= r >>> 2;
+        r &= r >>> 1;
+        long c = lines;
+        c &= c >>> 32;
+        c &= c >>> 16;
+        c &= c >>> 8;
+        return Long.bitCount(r & COL_0) + Long.bitCount(c & ROW_0);
+    }
+
+    /** Union of the cells covered by the given row and column sets. */
+    public static long linesMask(int rows, int cols) {
+        long m = ((long) cols & ROW_0) * COL_0;
+        while (rows != 0) {
+            m |= rowMask(Integer.numberOfTrailingZeros(rows));
+            rows &= rows - 1;
+        }
+        return m;
+    }
+
+    public void reset() {
+        occupied = 0;
+        colors[0] = colors[1] = colors[2] = colors[3] = 0;
+        for (int i = 0; i < SIZE; i++) rowFill[i] = colFill[i] = 0;
+    }
+
+    // Loads a saved occupancy and color plane (4 words at colorsFrom[offset]) and rebuilds the fill counters
+    void restore(long occupied, long[] colorsFrom, int offset) {
+        this.occupied = occupied;
+        System.arraycopy(colorsFrom, offset, colors, 0, 4);
+        for (int i = 0; i < SIZE; i++) {
+            rowFill[i] = (byte) Long.bitCount(occupied & rowMask(i));
+            colFill[i] = (byte) Long.bitCount(occupied & colMask(i));
+        }
+    }
+}
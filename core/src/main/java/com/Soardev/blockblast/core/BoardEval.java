@@ -0,0 +1,63 @@
+package com.Soardev.blockblast.core;
+
+/** Board-quality measures shared by the headless players. All work on raw occupancy. */
+public final class BoardEval {
+
+    private static final long NOT_COL_0 = ~Board.COL_0;
+    private static final long NOT_COL_7 = ~(Board.COL_0 << 7);
+
+    private BoardEval() {}
+
+    /** Empty cells whose four neighbours are all filled or off the board. */
+    public static int holes(long occupied) {
+        long empty = ~occupied;
+        // A neighbour is "blocking" if filled or off-board; shift the empties and look for none
+        long leftEmpty = (empty << 1) & NOT_COL_0;   // empty cell to the left of each cell
+        long rightEmpty = (empty >>> 1) & NOT_COL_7; // empty cell to the right
+        long upEmpty = empty << 8;
+        long downEmpty = empty >>> 8;
+        return Long.bitCount(empty & ~(leftEmpty | rightEmpty | upEmpty | downEmpty));
+    }
+
+    /** Edges between an empty and a filled cell (board edges excluded): how ragged the free space is. */
+    public static int fragmentation(long occupied) {
+        long empty = ~occupied;
+        long horizontal = (empty ^ (empty >>> 1)) & NOT_COL_7;
+        long vertical = (empty ^ (empty >>> 8)) & 0x00FFFFFFFFFFFFFFL;
+        return Long.bitCount(horizontal) + Long.bitCount(vertical);
+    }
+
+    /**
+     * Full rows and columns through the {@code placed} cells, from occupancy
+     * alone. Searches use this on scratch longs where a Board (and its
+     * counters) would be too heavy to copy per node.
+     */
+    public static long linesThrough(long occupied, long placed) {
+        long lines = 0;
+        for (long m = placed; m != 0; m &= m - 1) {
+            int i = Long.numberOfTrailingZeros(m);
+            long row = Board.rowMask(i >>> 3), col = Board.colMask(i & 7);
+            if ((occupied & row) == row) lines |= row;
+            if ((occupied & col) == col) lines |= col;
+        }
+        return lines;
+    }
+
+    /** Sum of squared fill counts over all rows and columns: rewards concentrating cells into lines. */
+    public static int lineProgress(long occupied) {
+        int sum = 0;
+        for (int i = 0; i < Board.SIZE; i++) {
+            int r = Long.bitCount(occupied & Board.rowMask(i));
+            int c = Long.bitCount(occupied & Board.colMask(i));
+            sum += r * r + c * c;
+        }
+        return sum;
+    }
+
+    /** How many of the shape types still have at least one legal placement. */
+    public static int fittableShapes(long occupied) {
+        int n = 0;
+        for (int t = 0; t < ShapeType.count(); t++) if (ShapeType.get(t).fitsAnywhere(occupied)) n++;
+        return n;
+    }
+}
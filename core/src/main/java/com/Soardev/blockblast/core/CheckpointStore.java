@@ -0,0 +1,93 @@
+package com.Soardev.blockblast.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the latest {@link GameSession} snapshot on disk.
+ *
+ * {@link #save} encodes the snapshot on the caller's thread (about a hundred
+ * bytes) and hands it to the executor; saves that arrive while a write is
+ * pending just replace the bytes to be written. Each write goes to a temp
+ * file that is synced and then renamed over the checkpoint, so a crash
+ * leaves either the old snapshot or the new one, never a torn file.
+ */
+public final class CheckpointStore {
+
+    private final File file;
+    private final File temp;
+    private final Executor executor;
+
+    private final byte[] encoded = new byte[GameSession.SNAPSHOT_BYTES];  // caller thread
+    private final byte[] latest = new byte[GameSession.SNAPSHOT_BYTES];   // guarded by itself
+    private final byte[] writing = new byte[GameSession.SNAPSHOT_BYTES];  // executor thread
+    private boolean deleteRequested;                                      // guarded by latest
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    public CheckpointStore(File file, Executor executor) {
+        this.file = file;
+        this.temp = new File(file.getPath() + ".tmp");
+        this.executor = executor;
+    }
+
+    /** Snapshots the session now and writes it in the background. Call from one thread only. */
+    public void save(GameSession session) {
+        session.writeSnapshot(encoded);
+        synchronized (latest) {
+            System.arraycopy(encoded, 0, latest, 0, encoded.length);
+            deleteRequested = false;
+        }
+        schedule();
+    }
+
+    /** Removes the checkpoint in the background, e.g. once the run is over. */
+    public void clear() {
+        synchronized (latest) {
+            deleteRequested = true;
+        }
+        schedule();
+    }
+
+    /** One small blocking read; returns null if there is no checkpoint. */
+    public byte[] load() {
+        if (!file.exists()) return null;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            if (in.length() < GameSession.SNAPSHOT_BYTES) return null;
+            byte[] data = new byte[GameSession.SNAPSHOT_BYTES];
+            in.readFully(data);
+            return data;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) executor.execute(this::flush);
+    }
+
+    private void flush() {
+        // Cleared first: a save arriving from here on schedules another flush
+        scheduled.set(false);
+        boolean delete;
+        synchronized (latest) {
+            delete = deleteRequested;
+            if (!delete) System.arraycopy(latest, 0, writing, 0, writing.length);
+        }
+        if (delete) {
+            file.delete();
+            return;
+        }
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(writing);
+            out.getFD().sync();
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) temp.delete();
+    }
+}
@@ -0,0 +1,166 @@
+package com.Soardev.blockblast.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * The daily challenge for one calendar date.
+ *
+ * The game seed comes from the date alone, so every player gets the same
+ * board and deals for the same moves, and it is a bijection of
+ * (epoch day, attempt): two dates never share a seed. Before a seed is
+ * used, the hint solver plays it headless (beam search, no time limit, so
+ * the result is the same on every device); if it cannot reach
+ * {@link GameSession#DAILY_TARGET}, the next attempt's seed is tried, up to
+ * {@link #MAX_ATTEMPTS} seeds and {@link #MAX_TOTAL_MOVES} solver moves in
+ * all. The budget counts moves, not time, so every device stops at the same
+ * seed.
+ *
+ * A typical date takes about 100 ms on a desktop JVM (up to about 180 ms);
+ * expect several times that on a low-end phone. A date that uses the whole
+ * budget takes roughly 1 s on a desktop.
+ *
+ * Works for any date, past or future, and results can be cached in a
+ * directory so a date is only searched once per install.
+ */
+public final class DailyChallenge {
+
+    public static final int MAX_ATTEMPTS = 8;
+    static final int MAX_MOVES = 2000;
+    // Across all attempts; a winning playthrough takes a few hundred moves
+    static final int MAX_TOTAL_MOVES = 4000;
+
+    // Keeps daily seeds apart from other uses of small integers as seeds
+    private static final long SALT = 0x44414C59L << 32; // "DALY"
+    // Bumped whenever dealing changes, since cached seeds were validated against the old deals
+    private static final int CACHE_MAGIC = 0x42424432; // "BBD2"
+    private static final int CACHE_BYTES = 36;
+
+    public final long epochDay;
+    /** Pass to {@link GameSession#startDaily(long)}. */
+    public final long seed;
+    public final int attempt;
+    /** False only if no attempt reached the target; the best one is used anyway. */
+    public final boolean reachable;
+    /** Score and move count of the search's own playthrough. */
+    public final int witnessScore;
+    public final int witnessMoves;
+    private final int colorCount;
+    private final GameSession.DealMode dealMode;
+
+    private DailyChallenge(long epochDay, long seed, int attempt, boolean reachable, int witnessScore, int witnessMoves,
+                           int colorCount, GameSession.DealMode dealMode) {
+        this.epochDay = epochDay;
+        this.seed = seed;
+        this.attempt = attempt;
+        this.reachable = reachable;
+        this.witnessScore = witnessScore;
+        this.witnessMoves = witnessMoves;
+        this.colorCount = colorCount;
+        this.dealMode = dealMode;
+    }
+
+    /** Days since 1970-01-01 in the proleptic Gregorian calendar; month is 1..12. */
+    public static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /** Distinct for every (day, attempt): both are packed into one word before the bijective mix. */
+    public static long seedFor(long epochDay, int attempt) {
+        return FastRandom.mix(SALT ^ ((epochDay << 8) | attempt));
+    }
+
+    /** Searches the date's seeds in order within the move budget. Deterministic; about 100 ms on a desktop JVM. */
+    public static DailyChallenge generate(long epochDay, int colorCount, GameSession.DealMode dealMode) {
+        GameSession session = new GameSession(colorCount, 0);
+        session.setDealMode(dealMode);
+        HintPolicy policy = new HintPolicy();
+        FastRandom unused = new FastRandom(0);
+        DailyChallenge best = null;
+        int budget = MAX_TOTAL_MOVES;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && budget > 0; attempt++) {
+            long seed = seedFor(epochDay, attempt);
+            session.startDaily(seed);
+            int moves = 0;
+            int limit = Math.min(MAX_MOVES, budget);
+            while (session.getStatus() == GameSession.Status.PLAYING && moves < limit) {
+                int move = policy.choose(session, unused);
+                if (move == PlacementPolicy.NO_MOVE) break;
+                if (!session.place(PlacementPolicy.slotOf(move), PlacementPolicy.xOf(move), PlacementPolicy.yOf(move))) break;
+                moves++;
+            }
+            budget -= moves;
+            boolean won = session.getStatus() == GameSession.Status.DAILY_WIN;
+            if (won || best == null || session.getScore() > best.witnessScore) {
+                best = new DailyChallenge(epochDay, seed, attempt, won, session.getScore(), moves, colorCount, dealMode);
+            }
+            if (won) break;
+        }
+        return best;
+    }
+
+    /** The cached challenge for the date if there is one, else a fresh search that is then cached. */
+    public static DailyChallenge forDate(File cacheDir, long epochDay, int colorCount, GameSession.DealMode dealMode) {
+        File file = new File(cacheDir, "daily-" + epochDay + ".bbd");
+        DailyChallenge cached = read(file);
+        if (cached != null && cached.epochDay == epochDay && cached.colorCount == colorCount && cached.dealMode == dealMode) {
+            return cached;
+        }
+        DailyChallenge daily = generate(epochDay, colorCount, dealMode);
+        cacheDir.mkdirs();
+        daily.write(file);
+        return daily;
+    }
+
+    private static DailyChallenge read(File file) {
+        if (!file.exists()) return null;
+        byte[] data = new byte[CACHE_BYTES];
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            if (in.length() < CACHE_BYTES) return null;
+            in.readFully(data);
+        } catch (IOException e) {
+            return null;
+        }
+        ByteBuffer b = ByteBuffer.wrap(data);
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, CACHE_BYTES - 4);
+        if (b.getInt(CACHE_BYTES - 4) != (int) crc.getValue() || b.getInt() != CACHE_MAGIC) return null;
+        long epochDay = b.getLong();
+        long seed = b.getLong();
+        int attempt = b.get();
+        boolean reachable = b.get() != 0;
+        int colorCount = b.get();
+        GameSession.DealMode dealMode = GameSession.DealMode.values()[b.get()];
+        int witnessScore = b.getInt();
+        int witnessMoves = b.getInt();
+        return new DailyChallenge(epochDay, seed, attempt, reachable, witnessScore, witnessMoves, colorCount, dealMode);
+    }
+
+    // Temp file and rename, as in CheckpointStore; a failed write just means searching again next time
+    private void write(File file) {
+        ByteBuffer b = ByteBuffer.allocate(CACHE_BYTES);
+        b.putInt(CACHE_MAGIC).putLong(epochDay).putLong(seed);
+        b.put((byte) attempt).put((byte) (reachable ? 1 : 0)).put((byte) colorCount).put((byte) dealMode.ordinal());
+        b.putInt(witnessScore).putInt(witnessMoves);
+        CRC32 crc = new CRC32();
+        crc.update(b.array(), 0, CACHE_BYTES - 4);
+        b.putInt((int) crc.getValue());
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(b.array());
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) temp.delete();
+    }
+}
@@ -0,0 +1,428 @@
+package com.Soardev.blockblast.core;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * The rules of one run, with no rendering or platform code: board, tray,
+ * scoring, combos, level targets, and the undo / skip / revive helpers.
+ *
+ * Colors are palette indices: 1..colorCount for pieces, colorCount + 1 for
+ * garbage. The caller maps them to real colors.
+ */
+public final class GameSession {
+
+    public static final int TRAY_SIZE = 3;
+    public static final int LEVEL_CLASSIC = 0;
+    public static final int LEVEL_DAILY = -1;
+    public static final int MAX_LEVEL = 500;
+    public static final int DAILY_TARGET = 3000;
+    public static final int DAILY_GARBAGE = 15;
+    public static final int DEFAULT_UNDO_DEPTH = 16;
+    public static final int SNAPSHOT_BYTES = 128;
+    public static final int DEFAULT_CLASSIC_RAMP = 20000;
+    public static final int DEFAULT_CLASSIC_HARDNESS = 160;
+
+    public enum Status { PLAYING, GAME_OVER, LEVEL_COMPLETE, DAILY_WIN }
+
+    /** RANDOM draws three independent shapes; FAIR checks the trio against the board first. */
+    public enum DealMode { RANDOM, FAIR }
+
+    private final int colorCount;
+    private final int garbageColor;
+    private final RandomStreams streams;
+    // Hands out a fresh game seed for each run started without one
+    private final FastRandom seeds;
+
+    private final Board board = new Board();
+    private final ShapeType[] tray = new ShapeType[TRAY_SIZE];
+    private final int[] trayColors = new int[TRAY_SIZE];
+    private int score;
+    private int comboCount;
+    private int level;
+    private int targetScore;
+    private boolean hasRevived;
+    private Status status = Status.PLAYING;
+    private DealMode dealMode = DealMode.RANDOM;
+    private final ShapeDealer dealer = new ShapeDealer();
+    // Share of recent moves that cleared a line, x256 (moving average over ~8 moves); steers the fair dealer
+    private int clearRate = ShapeDealer.TARGET_CLEAR_RATE;
+    // Classic hardness rises linearly to classicMaxHardness at classicRampScore points
+    private int classicRampScore = DEFAULT_CLASSIC_RAMP;
+    private int classicMaxHardness = DEFAULT_CLASSIC_HARDNESS;
+    private final LegalMoves legalMoves = new LegalMoves();
+    private ReplayRecorder recorder;
+    private LevelCatalog catalog;
+
+    // What the last place() / revive() cleared, for the caller's effects
+    private long lastCleared;
+    private int lastPoints;
+
+    // --- Undo ---
+    // One entry per position since the run started (or the last skip / revive)
+    private UndoHistory history = new UndoHistory(DEFAULT_UNDO_DEPTH);
+
+    public GameSession(int colorCount) {
+        this(colorCount, System.nanoTime() ^ FastRandom.mix(System.currentTimeMillis()));
+    }
+
+    /** Every run started with {@link #startLevel(int)} draws its seed from {@code seed}. */
+    public GameSession(int colorCount, long seed) {
+        this.seeds = new FastRandom(seed);
+        this.streams = new RandomStreams(seeds.nextLong());
+        if (colorCount < 1 || colorCount > 14) throw new IllegalArgumentException("colorCount must be 1..14: " + colorCount);
+        this.colorCount = colorCount;
+        this.garbageColor = colorCount + 1;
+    }
+
+    // --- Starting a run ---
+
+    /**
+     * Level 0 is Classic (no target). Levels in the catalog, if one is set,
+     * use its layout and target; others fall back to random garbage above
+     * level 10.
+     */
+    public void startLevel(int level) {
+        startLevel(level, seeds.nextLong());
+    }
+
+    /** Same seed and moves, same game: every deal and garbage block comes from {@code seed}. */
+    public void startLevel(int level, long seed) {
+        streams.reseed(seed);
+        reset(level);
+        if (recorder != null) recorder.begin(colorCount, dealMode, level, seed);
+        targetScore = targetFor(level);
+        if (catalog != null && catalog.contains(level)) {
+            board.place(catalog.garbage(level), garbageColor);
+        } else if (level > 10) {
+            addGarbageBlocks(level);
+        }
+        deal();
+        saveStateForUndo();
+    }
+
+    /** The daily board and every deal that follows come from {@code seed}; see {@link DailyChallenge}. */
+    public void startDaily(long seed) {
+        reset(LEVEL_DAILY);
+        targetScore = DAILY_TARGET;
+        streams.reseed(seed);
+        if (recorder != null) recorder.begin(colorCount, dealMode, LEVEL_DAILY, seed);
+        board.place(Board.scatter(streams.garbage(), DAILY_GARBAGE), garbageColor);
+        deal();
+        saveStateForUndo();
+    }
+
+    public static int targetScoreFor(int level) { return 1000 + (level * 500); }
+
+    private int targetFor(int level) {
+        if (level == LEVEL_CLASSIC) return Integer.MAX_VALUE;
+        if (level == LEVEL_DAILY) return DAILY_TARGET;
+        return catalog != null && catalog.contains(level) ? catalog.targetScore(level) : targetScoreFor(level);
+    }
+
+    private void reset(int level) {
+        this.level = level;
+        score = 0;
+        comboCount = 0;
+        clearRate = ShapeDealer.TARGET_CLEAR_RATE;
+        hasRevived = false;
+        history.clear();
+        lastCleared = 0;
+        lastPoints = 0;
+        status = Status.PLAYING;
+        board.reset();
+    }
+
+    private void addGarbageBlocks(int level) {
+        int blocksToAdd = (level - 10) / 2;
+        if (blocksToAdd > 12) blocksToAdd = 12;
+        board.place(Board.scatter(streams.garbage(), blocksToAdd), garbageColor);
+    }
+
+    void deal() {
+        FastRandom random = streams.deals();
+        if (dealMode == DealMode.FAIR) {
+            dealer.deal(board.occupied(), random, tray, clearRate, hardness());
+            for (int i = 0; i < TRAY_SIZE; i++) trayColors[i] = 1 + random.nextInt(colorCount);
+        } else {
+            for (int i = 0; i < TRAY_SIZE; i++) {
+                tray[i] = ShapeType.getRandom(random);
+                trayColors[i] = 1 + random.nextInt(colorCount);
+            }
+        }
+        legalMoves.rescanAll(tray, board.occupied());
+    }
+
+    // Classic only: Adventure and daily difficulty come from their layouts and targets
+    private int hardness() {
+        if (level != LEVEL_CLASSIC || classicMaxHardness == 0) return 0;
+        return (int) Math.min(classicMaxHardness, (long) classicMaxHardness * score / classicRampScore);
+    }
+
+    /**
+     * Tunes the Classic curve for the fair dealer: hardness climbs linearly to
+     * {@code maxHardness} (0..256; 0 turns it off) at {@code rampScore}
+     * points, taking weight from small and line-completing pieces and
+     * giving it to large ones. Replays and checkpoints assume the same curve.
+     */
+    public void setClassicDifficulty(int rampScore, int maxHardness) {
+        if (rampScore < 1 || maxHardness < 0 || maxHardness > ShapeDealer.MAX_HARDNESS) {
+            throw new IllegalArgumentException("rampScore must be positive and maxHardness 0..256: " + rampScore + ", " + maxHardness);
+        }
+        classicRampScore = rampScore;
+        classicMaxHardness = maxHardness;
+    }
+
+    /** Applies from the next deal on. */
+    public void setDealMode(DealMode mode) { dealMode = mode; }
+    /** Applies from the next run on; null stops recording. */
+    public void setRecorder(ReplayRecorder recorder) { this.recorder = recorder; }
+
+    /** Fixed Adventure layouts; null (the default) generates them from the seed. */
+    public void setLevelCatalog(LevelCatalog catalog) { this.catalog = catalog; }
+    public LevelCatalog getLevelCatalog() { return catalog; }
+    public ReplayRecorder getRecorder() { return recorder; }
+    public DealMode getDealMode() { return dealMode; }
+
+    // --- Moves ---
+
+    public boolean canPlace(int slot, int gx, int gy) {
+        ShapeType type = tray[slot];
+        return type != null && canPlace(type, gx, gy);
+    }
+
+    public boolean canPlace(ShapeType type, int gx, int gy) {
+        long mask = type.maskAt(gx, gy);
+        return mask != 0 && board.fits(mask);
+    }
+
+    /**
+     * Places the tray piece in {@code slot} with its top-left at (gx, gy),
+     * clears any completed lines, deals a new tray when it runs out and
+     * updates {@link #getStatus()}. Returns false if the move is illegal.
+     */
+    public boolean place(int slot, int gx, int gy) {
+        if (status != Status.PLAYING || !canPlace(slot, gx, gy)) return false;
+        if (recorder != null) recorder.place(slot, gx, gy);
+
+        long placed = tray[slot].maskAt(gx, gy);
+        board.place(placed, trayColors[slot]);
+        tray[slot] = null;
+        legalMoves.rescan(slot, null, 0);
+        legalMoves.filled(tray, placed);
+        checkLines(placed);
+        if (isTrayEmpty()) deal();
+        saveStateForUndo();
+        updateStatus();
+        return true;
+    }
+
+    private void updateStatus() {
+        if (level > 0 && score >= targetScore) status = Status.LEVEL_COMPLETE;
+        else if (level == LEVEL_DAILY && score >= targetScore) status = Status.DAILY_WIN;
+        else if (!canAnyShapeFit()) status = Status.GAME_OVER;
+        else status = Status.PLAYING;
+    }
+
+    private void checkLines(long placed) {
+        long cleared = board.fullLinesThrough(placed);
+        lastCleared = cleared;
+        clearRate += ((cleared != 0 ? 256 : 0) - clearRate) >> 3;
+        if (cleared != 0) {
+            comboCount++;
+            lastPoints = Board.lineCount(cleared) * 10 * comboCount;
+            score += lastPoints;
+            board.clear(cleared);
+            legalMoves.cleared(tray, cleared, board.occupied());
+        } else {
+            comboCount = 0;
+            lastPoints = 0;
+        }
+    }
+
+    /** Steps back one position. Board, tray (with colors), score, combo and the dealer's state all come back. */
+    public boolean undo() {
+        if (!history.undo()) return false;
+        if (recorder != null) recorder.undo();
+        restoreFromHistory();
+        return true;
+    }
+
+    /** Steps forward again after {@link #undo()}; any new move discards the redo steps. */
+    public boolean redo() {
+        if (!history.redo()) return false;
+        if (recorder != null) recorder.redo();
+        restoreFromHistory();
+        return true;
+    }
+
+    private void restoreFromHistory() {
+        score = history.restore(board, tray, trayColors, legalMoves, streams.deals());
+        comboCount = history.combo();
+        clearRate = history.clearRate();
+        lastCleared = 0;
+        lastPoints = 0;
+        updateStatus();
+    }
+
+    /** Replaces the tray with a fresh deal. Undo history starts over from here. */
+    public void skip() {
+        if (recorder != null) recorder.skip();
+        deal();
+        history.clear();
+        saveStateForUndo();
+    }
+
+    /** Clears the centre 4x4 and deals a fresh tray. Returns the cells that were emptied. */
+    public long revive() {
+        if (recorder != null) recorder.revive();
+        hasRevived = true;
+        status = Status.PLAYING;
+        int center = Board.SIZE / 2;
+        long area = 0;
+        for (int y = center - 2; y < center + 2; y++) {
+            for (int x = center - 2; x < center + 2; x++) area |= Board.bit(x, y);
+        }
+        lastCleared = area & board.occupied();
+        lastPoints = 0;
+        board.clear(area);
+        deal();
+        history.clear();
+        saveStateForUndo();
+        return lastCleared;
+    }
+
+    // Records the current position as the newest history entry
+    void saveStateForUndo() {
+        history.save(board, tray, trayColors, legalMoves, score, comboCount, clearRate, streams.deals());
+    }
+
+    /** Number of undo steps kept. Clears the history, so set it before a run starts. */
+    public void setUndoDepth(int depth) {
+        history = new UndoHistory(depth);
+    }
+
+    public int getUndoDepth() { return history.depth(); }
+
+    /** O(1): reads the tracked legal anchors instead of scanning the board. */
+    public boolean canAnyShapeFit() { return legalMoves.any(); }
+
+    /** Number of anchors where the piece in {@code slot} fits right now; 0 for a used slot. */
+    public int legalMoveCount(int slot) { return legalMoves.count(slot); }
+
+    /** Legal anchors for {@code slot} as a bitboard, bit gy * 8 + gx. */
+    public long legalAnchors(int slot) { return legalMoves.anchors(slot); }
+
+    // --- Checkpoint ---
+
+    // Bumped whenever the layout or dealing changes; an older run is not resumed
+    private static final int SNAPSHOT_MAGIC = 0x42425332; // "BBS2"
+    private static final int SNAPSHOT_PAYLOAD = SNAPSHOT_BYTES - 4;
+
+    /**
+     * Writes the run into {@code out} (at least {@link #SNAPSHOT_BYTES} long):
+     * rules state, board, tray and the deal/garbage RNG positions, followed
+     * by a CRC32 of the rest. Undo history and any replay in progress are
+     * not included.
+     */
+    public void writeSnapshot(byte[] out) {
+        ByteBuffer b = ByteBuffer.wrap(out, 0, SNAPSHOT_BYTES);
+        b.putInt(SNAPSHOT_MAGIC);
+        b.put((byte) colorCount).put((byte) dealMode.ordinal()).put((byte) status.ordinal()).put((byte) (hasRevived ? 1 : 0));
+        b.putInt(level).putInt(score).putInt(comboCount);
+        b.putLong(streams.seed());
+        b.putLong(streams.deals().state0()).putLong(streams.deals().state1());
+        b.putLong(streams.garbage().state0()).putLong(streams.garbage().state1());
+        b.putLong(board.occupied);
+        for (long word : board.colors) b.putLong(word);
+        for (int i = 0; i < TRAY_SIZE; i++) {
+            b.put((byte) (tray[i] == null ? 0 : tray[i].ordinal() + 1)).put((byte) trayColors[i]);
+        }
+        b.putShort((short) clearRate);
+        while (b.position() < SNAPSHOT_PAYLOAD) b.put((byte) 0);
+        CRC32 crc = new CRC32();
+        crc.update(out, 0, SNAPSHOT_PAYLOAD);
+        b.putInt((int) crc.getValue());
+    }
+
+    /**
+     * Restores a run saved by {@link #writeSnapshot}. Returns false, leaving
+     * the session untouched, if the data is short, corrupt or from another
+     * format or color count.
+     */
+    public boolean readSnapshot(byte[] in) {
+        if (in == null || in.length < SNAPSHOT_BYTES) return false;
+        ByteBuffer b = ByteBuffer.wrap(in, 0, SNAPSHOT_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(in, 0, SNAPSHOT_PAYLOAD);
+        if (b.getInt(SNAPSHOT_PAYLOAD) != (int) crc.getValue()) return false;
+        if (b.getInt() != SNAPSHOT_MAGIC || b.get() != colorCount) return false;
+
+        DealMode savedDealMode = DealMode.values()[b.get()];
+        Status savedStatus = Status.values()[b.get()];
+        boolean savedRevived = b.get() != 0;
+        int savedLevel = b.getInt();
+        reset(savedLevel);
+        dealMode = savedDealMode;
+        status = savedStatus;
+        hasRevived = savedRevived;
+        score = b.getInt();
+        comboCount = b.getInt();
+        targetScore = targetFor(savedLevel);
+        streams.reseed(b.getLong());
+        streams.deals().setState(b.getLong(), b.getLong());
+        streams.garbage().setState(b.getLong(), b.getLong());
+        long occupied = b.getLong();
+        long[] colors = new long[4];
+        for (int i = 0; i < colors.length; i++) colors[i] = b.getLong();
+        board.restore(occupied, colors, 0);
+        for (int i = 0; i < TRAY_SIZE; i++) {
+            int shape = b.get();
+            tray[i] = shape == 0 ? null : ShapeType.get(shape - 1);
+            trayColors[i] = b.get();
+        }
+        clearRate = b.getShort();
+        legalMoves.rescanAll(tray, board.occupied());
+        // A resumed run cannot be replayed from its seed alone
+        if (recorder != null) recorder.discard();
+        saveStateForUndo();
+        return true;
+    }
+
+    // --- State ---
+
+    // Read-only use: writes through it bypass the legal-move tracking
+    public Board getBoard() { return board; }
+    public ShapeType getTrayShape(int slot) { return tray[slot]; }
+    public int getTrayColor(int slot) { return trayColors[slot]; }
+    public int getGarbageColor() { return garbageColor; }
+    public int getColorCount() { return colorCount; }
+    public int getScore() { return score; }
+    public int getComboCount() { return comboCount; }
+    public int getLevel() { return level; }
+    public int getTargetScore() { return targetScore; }
+    public boolean hasRevived() { return hasRevived; }
+    public boolean canUndo() { return history.canUndo(); }
+    public boolean canRedo() { return history.canRedo(); }
+    /** How many undo steps back from the newest position the game is. */
+    public int getUndoSteps() { return history.stepsBack(); }
+    public Status getStatus() { return status; }
+    /** The seed of the current run. */
+    public long getSeed() { return streams.seed(); }
+    /** Randomness for effects; separate from the deals, so visuals never change the game. */
+    public FastRandom getCosmeticRandom() { return streams.cosmetics(); }
+    public long getLastCleared() { return lastCleared; }
+    public int getLastPoints() { return lastPoints; }
+
+    // Lets fixtures set up a known tray
+    void setTray(int slot, ShapeType type, int color) {
+        tray[slot] = type;
+        trayColors[slot] = color;
+        legalMoves.rescan(slot, type, board.occupied());
+    }
+
+    public boolean isTrayEmpty() {
+        for (ShapeType type : tray) if (type != null) return false;
+        return true;
+    }
+}
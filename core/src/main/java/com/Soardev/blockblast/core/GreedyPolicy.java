@@ -0,0 +1,43 @@
+package com.Soardev.blockblast.core;
+
+import java.util.Random;
+
+/**
+ * One-ply greedy player: takes the move that clears the most lines, then the
+ * one that keeps the most shape types placeable, leaves the fewest
+ * isolated holes and stacks cells into nearly-full lines. Ties are broken
+ * at random.
+ */
+public final class GreedyPolicy implements PlacementPolicy {
+
+    @Override
+    public int choose(GameSession session, Random random) {
+        long occupied = session.getBoard().occupied();
+        int best = NO_MOVE;
+        int bestScore = Integer.MIN_VALUE;
+        int ties = 0;
+        for (int slot = 0; slot < GameSession.TRAY_SIZE; slot++) {
+            ShapeType type = session.getTrayShape(slot);
+            if (type == null) continue;
+            for (int i = 0; i < Board.CELLS; i++) {
+                long mask = type.anchorMasks[i];
+                if (mask == 0 || (occupied & mask) != 0) continue;
+                long after = occupied | mask;
+                long lines = BoardEval.linesThrough(after, mask);
+                after &= ~lines;
+                int score = Board.lineCount(lines) * 1000
+                        + BoardEval.fittableShapes(after) * 20
+                        - BoardEval.holes(after) * 10
+                        + BoardEval.lineProgress(after);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = slot * Board.CELLS + i;
+                    ties = 1;
+                } else if (score == bestScore && random.nextInt(++ties) == 0) {
+                    best = slot * Board.CELLS + i;
+                }
+            }
+        }
+        return best;
+    }
+}
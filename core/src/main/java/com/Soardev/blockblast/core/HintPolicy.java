@@ -0,0 +1,21 @@
+package com.Soardev.blockblast.core;
+
+import java.util.Random;
+
+/** Plays the first move of the hint solver's best sequence. */
+public final class HintPolicy implements PlacementPolicy {
+
+    private final HintSolver solver = new HintSolver();
+    private final HintSolver.Hint hint = new HintSolver.Hint();
+    private final long budgetNanos;
+
+    /** Unbounded time: the beam alone limits the search, so results are reproducible. */
+    public HintPolicy() { this(Long.MAX_VALUE); }
+
+    public HintPolicy(long budgetNanos) { this.budgetNanos = budgetNanos; }
+
+    @Override
+    public int choose(GameSession session, Random random) {
+        return solver.solve(session, budgetNanos, hint) ? hint.firstMove() : NO_MOVE;
+    }
+}
@@ -0,0 +1,237 @@
+package com.Soardev.blockblast.core;
+
+/**
+ * Finds the best order and placement of the pieces in the tray.
+ *
+ * Depth-first over (piece, anchor) with the board as a bare occupancy long,
+ * so no objects are created per node. Candidates at each depth are ordered
+ * by a cheap score and only the best few are expanded; positions reached by
+ * different orders share a transposition table; and the whole search stops
+ * at a wall-clock deadline, returning the best sequence found so far.
+ *
+ * The table is keyed on the position alone and kept between searches, so a
+ * repeated hint request (same board after an undo, or asked twice) and the
+ * positions two consecutive requests share are answered from it.
+ *
+ * Not thread-safe: keep one solver per worker thread.
+ */
+public final class HintSolver {
+
+    public static final long DEFAULT_BUDGET_NANOS = 8_000_000L;
+
+    private static final int MAX_DEPTH = GameSession.TRAY_SIZE;
+    private static final int MAX_MOVES = GameSession.TRAY_SIZE * Board.CELLS;
+    // Candidates expanded after ordering, by pieces placed so far in a full tray. Indexed by pieces
+    // remaining rather than search depth, so a position's value is the same whichever search reaches it
+    private static final int[] BEAM = {16, 12, 12};
+
+    // Leaf weights. Points are scaled so one cleared line outweighs any board-shape term.
+    private static final int POINT_WEIGHT = 100;
+    private static final int FIT_WEIGHT = 200;
+    private static final int HOLE_WEIGHT = 150;
+    private static final int FRAGMENT_WEIGHT = 10;
+    private static final int COMBO_WEIGHT = 50;
+    private static final int STRANDED_PIECE = -1_000_000;
+
+    private static final int TT_BITS = 15;
+    private static final int TT_MASK = (1 << TT_BITS) - 1;
+
+    private final ShapeType[] tray = new ShapeType[GameSession.TRAY_SIZE];
+    private final int[][] moves = new int[MAX_DEPTH][MAX_MOVES];
+    private final int[][] quick = new int[MAX_DEPTH][MAX_MOVES];
+    // Triangular principal-variation table: pv[d] is the best line found from depth d
+    private final int[][] pv = new int[MAX_DEPTH + 1][MAX_DEPTH];
+    private final int[] pvLength = new int[MAX_DEPTH + 1];
+
+    // Transposition table: value and best continuation (up to 3 moves, 8 bits each, plus a length).
+    // Entries are exact (only finished subtrees are stored), so they stay valid across searches;
+    // the age is the searchId that stored them and only decides what gets replaced.
+    private final long[] ttKeys = new long[1 << TT_BITS];
+    private final int[] ttValues = new int[1 << TT_BITS];
+    private final int[] ttLines = new int[1 << TT_BITS];
+    private final int[] ttAges = new int[1 << TT_BITS];
+    private final byte[] ttPieces = new byte[1 << TT_BITS];
+    private int searchId;
+
+    private long deadline;
+    private int nodes;
+    private boolean timedOut;
+
+    /** Result of a search, filled in place so callers can reuse one instance. */
+    public static final class Hint {
+        public final int[] moves = new int[MAX_DEPTH];
+        public int length;
+        public int value;
+        public int nodes;
+        /** False when the time budget ran out before the search finished. */
+        public boolean complete;
+
+        public int firstMove() { return length > 0 ? moves[0] : PlacementPolicy.NO_MOVE; }
+    }
+
+    public boolean solve(GameSession session, long budgetNanos, Hint out) {
+        for (int i = 0; i < GameSession.TRAY_SIZE; i++) tray[i] = session.getTrayShape(i);
+        return search(session.getBoard().occupied(), session.getComboCount(), budgetNanos, out);
+    }
+
+    /**
+     * Searches from the given position. {@code tray} may contain nulls for
+     * used slots. Returns true if at least one move was found.
+     */
+    public boolean solve(long occupied, ShapeType[] tray, int comboCount, long budgetNanos, Hint out) {
+        System.arraycopy(tray, 0, this.tray, 0, GameSession.TRAY_SIZE);
+        return search(occupied, comboCount, budgetNanos, out);
+    }
+
+    private boolean search(long occupied, int comboCount, long budgetNanos, Hint out) {
+        long now = System.nanoTime();
+        deadline = budgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : now + budgetNanos;
+        nodes = 0;
+        timedOut = false;
+        searchId++;
+
+        int remaining = 0;
+        for (int i = 0; i < GameSession.TRAY_SIZE; i++) if (tray[i] != null) remaining |= 1 << i;
+
+        out.value = search(0, occupied, remaining, comboCount);
+        out.length = pvLength[0];
+        System.arraycopy(pv[0], 0, out.moves, 0, out.length);
+        out.nodes = nodes;
+        out.complete = !timedOut;
+        return out.length > 0;
+    }
+
+    private int search(int depth, long occupied, int remaining, int combo) {
+        pvLength[depth] = 0;
+        if (remaining == 0) return leafValue(occupied, combo);
+
+        long key = key(occupied, remaining, combo);
+        int slot = (int) key & TT_MASK;
+        if (ttKeys[slot] == key) {
+            int line = ttLines[slot];
+            int n = line >>> 24;
+            for (int i = 0; i < n; i++) pv[depth][i] = (line >>> (i << 3)) & 0xFF;
+            pvLength[depth] = n;
+            return ttValues[slot];
+        }
+
+        int count = generate(depth, occupied, remaining);
+        if (count == 0) {
+            return STRANDED_PIECE * Integer.bitCount(remaining) + leafValue(occupied, combo);
+        }
+
+        int pieces = Integer.bitCount(remaining);
+        int width = Math.min(BEAM[MAX_DEPTH - pieces], count);
+        int best = Integer.MIN_VALUE;
+        for (int k = 0; k < width; k++) {
+            selectBest(depth, k, count);
+            int move = moves[depth][k];
+            int piece = PlacementPolicy.slotOf(move);
+            long mask = tray[piece].anchorMasks[move % Board.CELLS];
+
+            long after = occupied | mask;
+            long lines = BoardEval.linesThrough(after, mask);
+            int nextCombo = 0, gained = 0;
+            if (lines != 0) {
+                nextCombo = combo + 1;
+                gained = Board.lineCount(lines) * 10 * nextCombo * POINT_WEIGHT;
+                after &= ~lines;
+            }
+
+            if ((++nodes & 63) == 0 && System.nanoTime() > deadline) timedOut = true;
+            int value = gained + search(depth + 1, after, remaining & ~(1 << piece), nextCombo);
+            if (value > best) {
+                best = value;
+                pv[depth][0] = move;
+                int n = pvLength[depth + 1];
+                System.arraycopy(pv[depth + 1], 0, pv[depth], 1, n);
+                pvLength[depth] = n + 1;
+            }
+            if (timedOut) break;
+        }
+
+        // Keep this search's entries over older ones, and among them the larger (costlier) subtree
+        if (!timedOut && (ttAges[slot] != searchId || pieces >= ttPieces[slot])) {
+            int n = pvLength[depth];
+            int line = n << 24;
+            for (int i = 0; i < n; i++) line |= pv[depth][i] << (i << 3);
+            ttKeys[slot] = key;
+            ttValues[slot] = best;
+            ttLines[slot] = line;
+            ttAges[slot] = searchId;
+            ttPieces[slot] = (byte) pieces;
+        }
+        return best;
+    }
+
+    /** Legal moves for the remaining pieces with a cheap ordering score. Returns the count. */
+    private int generate(int depth, long occupied, int remaining) {
+        int[] out = moves[depth];
+        int[] scores = quick[depth];
+        int count = 0;
+        for (int piece = 0; piece < GameSession.TRAY_SIZE; piece++) {
+            if ((remaining & (1 << piece)) == 0) continue;
+            // Identical pieces in two slots would only repeat the same subtree
+            if (sameAsEarlierSlot(piece, remaining)) continue;
+            long[] anchors = tray[piece].anchorMasks;
+            for (int i = 0; i < Board.CELLS; i++) {
+                long mask = anchors[i];
+                if (mask == 0 || (occupied & mask) != 0) continue;
+                long after = occupied | mask;
+                long lines = BoardEval.linesThrough(after, mask);
+                out[count] = piece * Board.CELLS + i;
+                scores[count] = Board.lineCount(lines) * 1000 + contact(occupied, mask);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean sameAsEarlierSlot(int piece, int remaining) {
+        for (int p = 0; p < piece; p++) {
+            if ((remaining & (1 << p)) != 0 && tray[p] == tray[piece]) return true;
+        }
+        return false;
+    }
+
+    /** Partial selection sort: moves the best of [k, count) to position k. */
+    private void selectBest(int depth, int k, int count) {
+        int[] m = moves[depth], s = quick[depth];
+        int bestIndex = k;
+        for (int i = k + 1; i < count; i++) if (s[i] > s[bestIndex]) bestIndex = i;
+        if (bestIndex != k) {
+            int t = m[k]; m[k] = m[bestIndex]; m[bestIndex] = t;
+            t = s[k]; s[k] = s[bestIndex]; s[bestIndex] = t;
+        }
+    }
+
+    /** Filled neighbours and board edges touching the piece: snug placements first. */
+    private static int contact(long occupied, long mask) {
+        int touching = Long.bitCount((mask << 1) & ~Board.COL_0 & occupied)
+                + Long.bitCount((mask >>> 1) & ~(Board.COL_0 << 7) & occupied)
+                + Long.bitCount((mask << 8) & occupied)
+                + Long.bitCount((mask >>> 8) & occupied);
+        int edges = Long.bitCount(mask & Board.COL_0) + Long.bitCount(mask & (Board.COL_0 << 7))
+                + Long.bitCount(mask & Board.ROW_0) + Long.bitCount(mask & Board.rowMask(Board.SIZE - 1));
+        return touching + edges;
+    }
+
+    private static int leafValue(long occupied, int combo) {
+        return BoardEval.fittableShapes(occupied) * FIT_WEIGHT
+                - BoardEval.holes(occupied) * HOLE_WEIGHT
+                - BoardEval.fragmentation(occupied) * FRAGMENT_WEIGHT
+                + combo * COMBO_WEIGHT;
+    }
+
+    // The position alone: board, which shape sits in each remaining slot, and the combo
+    private long key(long occupied, int remaining, int combo) {
+        long h = occupied;
+        // Piece identities matter too: the same slots can hold different shapes between searches
+        long pieces = ((long) remaining << 24) | ((long) combo << 32);
+        for (int i = 0; i < GameSession.TRAY_SIZE; i++) {
+            if ((remaining & (1 << i)) != 0) pieces |= (long) (tray[i].ordinal() + 1) << (i << 3);
+        }
+        h = FastRandom.mix(h + pieces * 0x9E3779B97F4A7C15L);
+        return h == 0 ? 1 : h;
+    }
+}
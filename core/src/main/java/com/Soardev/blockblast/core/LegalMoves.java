@@ -0,0 +1,68 @@
+package com.Soardev.blockblast.core;
+
+/**
+ * Live set of legal anchors for each tray slot, one bit per anchor cell.
+ *
+ * Filling cells can only remove anchors, and only those covering a filled
+ * cell; clearing cells can only add anchors covering a cleared cell. So a
+ * board change re-tests just the anchors touching the changed cells, and
+ * counts and the game-over test are a popcount away. A newly dealt shape
+ * is scanned once in full.
+ */
+final class LegalMoves {
+
+    private final long[] legal = new long[GameSession.TRAY_SIZE];
+
+    /** Full scan for a newly dealt (or removed, when null) shape. */
+    void rescan(int slot, ShapeType type, long occupied) {
+        long anchors = 0;
+        if (type != null) {
+            long[] masks = type.anchorMasks;
+            for (int i = 0; i < Board.CELLS; i++) {
+                if (masks[i] != 0 && (masks[i] & occupied) == 0) anchors |= 1L << i;
+            }
+        }
+        legal[slot] = anchors;
+    }
+
+    void rescanAll(ShapeType[] tray, long occupied) {
+        for (int slot = 0; slot < GameSession.TRAY_SIZE; slot++) rescan(slot, tray[slot], occupied);
+    }
+
+    /** {@code cells} were just filled: drop every anchor that covers one of them. */
+    void filled(ShapeType[] tray, long cells) {
+        for (int slot = 0; slot < GameSession.TRAY_SIZE; slot++) {
+            if (tray[slot] == null || legal[slot] == 0) continue;
+            legal[slot] &= ~covering(tray[slot], cells);
+        }
+    }
+
+    /** {@code cells} were just emptied: re-test only the anchors that cover one of them. */
+    void cleared(ShapeType[] tray, long cells, long occupied) {
+        for (int slot = 0; slot < GameSession.TRAY_SIZE; slot++) {
+            ShapeType type = tray[slot];
+            if (type == null) continue;
+            long anchors = legal[slot];
+            for (long m = covering(type, cells) & ~anchors; m != 0; m &= m - 1) {
+                int i = Long.numberOfTrailingZeros(m);
+                if ((type.anchorMasks[i] & occupied) == 0) anchors |= 1L << i;
+            }
+            legal[slot] = anchors;
+        }
+    }
+
+    private static long covering(ShapeType type, long cells) {
+        long anchors = 0;
+        for (long m = cells; m != 0; m &= m - 1) anchors |= type.anchorsCovering[Long.numberOfTrailingZeros(m)];
+        return anchors;
+    }
+
+    long anchors(int slot) { return legal[slot]; }
+    void set(int slot, long anchors) { legal[slot] = anchors; }
+    int count(int slot) { return Long.bitCount(legal[slot]); }
+
+    boolean any() {
+        for (long anchors : legal) if (anchors != 0) return true;
+        return false;
+    }
+}
@@ -0,0 +1,81 @@
+package com.Soardev.blockblast.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+
+/**
+ * The fixed Adventure layouts, built offline by the tools' GenerateLevels
+ * and shipped as a small binary asset.
+ *
+ * Layout (big-endian): "BBL1", level count, CRC32 of the records, then one
+ * 16-byte record per level starting at level 1: garbage bitboard (long),
+ * target score (int) and the simulated win rate (float). Lookups read the
+ * record in place, so the buffer can be a read-only memory map and the
+ * table never has to be copied onto the heap.
+ */
+public final class LevelCatalog {
+
+    public static final String ASSET_NAME = "levels.bin";
+
+    private static final int MAGIC = 0x42424C31; // "BBL1"
+    static final int HEADER_BYTES = 12;
+    static final int RECORD_BYTES = 16;
+
+    private final ByteBuffer data;
+    private final int count;
+
+    private LevelCatalog(ByteBuffer data, int count) {
+        this.data = data;
+        this.count = count;
+    }
+
+    /**
+     * Wraps an encoded catalog without copying it. Throws
+     * IllegalArgumentException if the header, size or checksum is wrong.
+     */
+    public static LevelCatalog wrap(ByteBuffer buffer) {
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        int base = data.position();
+        if (data.remaining() < HEADER_BYTES || data.getInt(base) != MAGIC) {
+            throw new IllegalArgumentException("not a level catalog");
+        }
+        int count = data.getInt(base + 4);
+        if (count < 0 || data.remaining() < HEADER_BYTES + (long) count * RECORD_BYTES) {
+            throw new IllegalArgumentException("level catalog truncated: " + count + " levels in " + data.remaining() + " bytes");
+        }
+        CRC32 crc = new CRC32();
+        for (int i = HEADER_BYTES, end = HEADER_BYTES + count * RECORD_BYTES; i < end; i++) crc.update(data.get(base + i));
+        if (data.getInt(base + 8) != (int) crc.getValue()) throw new IllegalArgumentException("level catalog checksum mismatch");
+        return new LevelCatalog(data.slice(), count);
+    }
+
+    /** Encodes levels 1..garbage.length; index 0 of each array is level 1. */
+    public static byte[] encode(long[] garbage, int[] targets, float[] winRates) {
+        int count = garbage.length;
+        ByteBuffer b = ByteBuffer.allocate(HEADER_BYTES + count * RECORD_BYTES);
+        b.putInt(MAGIC).putInt(count).putInt(0);
+        for (int i = 0; i < count; i++) b.putLong(garbage[i]).putInt(targets[i]).putFloat(winRates[i]);
+        CRC32 crc = new CRC32();
+        crc.update(b.array(), HEADER_BYTES, count * RECORD_BYTES);
+        b.putInt(8, (int) crc.getValue());
+        return b.array();
+    }
+
+    public int levelCount() { return count; }
+
+    public boolean contains(int level) { return level >= 1 && level <= count; }
+
+    /** Garbage cells of {@code level} as a bitboard, bit gy * 8 + gx. */
+    public long garbage(int level) { return data.getLong(record(level)); }
+
+    public int targetScore(int level) { return data.getInt(record(level) + 8); }
+
+    /** Share of simulated games that reached the target when the catalog was built. */
+    public float winRate(int level) { return data.getFloat(record(level) + 12); }
+
+    private int record(int level) {
+        if (!contains(level)) throw new IndexOutOfBoundsException("level " + level + " not in catalog of " + count);
+        return HEADER_BYTES + (level - 1) * RECORD_BYTES;
+    }
+}
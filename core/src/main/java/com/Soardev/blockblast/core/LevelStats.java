@@ -0,0 +1,67 @@
+package com.Soardev.blockblast.core;
+
+import java.util.Locale;
+
+/** Aggregated outcome of many simulated games of one level. Mergeable, so fork/join halves can be summed. */
+public final class LevelStats {
+
+    public static final int BUCKET_POINTS = 10;
+    public static final int BUCKETS = 4000; // last bucket collects everything from 39,990 up
+
+    public final int level;
+    public long games;
+    public long wins;
+    public long totalScore;
+    public long totalMoves;
+    public int minScore = Integer.MAX_VALUE;
+    public int maxScore;
+    public final long[] histogram = new long[BUCKETS];
+
+    public LevelStats(int level) { this.level = level; }
+
+    void record(int score, int moves, boolean won) {
+        games++;
+        if (won) wins++;
+        totalScore += score;
+        totalMoves += moves;
+        if (score < minScore) minScore = score;
+        if (score > maxScore) maxScore = score;
+        histogram[Math.min(score / BUCKET_POINTS, BUCKETS - 1)]++;
+    }
+
+    public void add(LevelStats other) {
+        games += other.games;
+        wins += other.wins;
+        totalScore += other.totalScore;
+        totalMoves += other.totalMoves;
+        minScore = Math.min(minScore, other.minScore);
+        maxScore = Math.max(maxScore, other.maxScore);
+        for (int i = 0; i < BUCKETS; i++) histogram[i] += other.histogram[i];
+    }
+
+    public double winRate() { return games == 0 ? 0 : (double) wins / games; }
+    public double meanScore() { return games == 0 ? 0 : (double) totalScore / games; }
+    public double meanMoves() { return games == 0 ? 0 : (double) totalMoves / games; }
+
+    /** Lower bound of the histogram bucket holding the given quantile (0..1). */
+    public int scorePercentile(double q) {
+        long rank = (long) Math.ceil(q * games);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram[i];
+            if (seen >= rank && seen > 0) return i * BUCKET_POINTS;
+        }
+        return (BUCKETS - 1) * BUCKET_POINTS;
+    }
+
+    public static String header() {
+        return "level,games,win_rate,mean_score,p10,p50,p90,min,max,mean_moves";
+    }
+
+    public String toRow() {
+        return String.format(Locale.US, "%d,%d,%.4f,%.1f,%d,%d,%d,%d,%d,%.1f",
+                level, games, winRate(), meanScore(),
+                scorePercentile(0.10), scorePercentile(0.50), scorePercentile(0.90),
+                games == 0 ? 0 : minScore, maxScore, meanMoves());
+    }
+}
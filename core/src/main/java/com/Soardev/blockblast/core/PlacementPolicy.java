@@ -0,0 +1,21 @@
+package com.Soardev.blockblast.core;
+
+import java.util.Random;
+
+/**
+ * Chooses a move for a headless player. Instances may keep scratch state, so
+ * the simulator creates one per worker rather than sharing them.
+ */
+public interface PlacementPolicy {
+
+    /** Returned by {@link #choose} when no tray piece fits anywhere. */
+    int NO_MOVE = -1;
+
+    /** Returns the chosen move packed as {@code slot * 64 + gy * 8 + gx}, or {@link #NO_MOVE}. */
+    int choose(GameSession session, Random random);
+
+    static int move(int slot, int gx, int gy) { return slot * Board.CELLS + Board.index(gx, gy); }
+    static int slotOf(int move) { return move / Board.CELLS; }
+    static int xOf(int move) { return move & 7; }
+    static int yOf(int move) { return (move % Board.CELLS) >>> 3; }
+}
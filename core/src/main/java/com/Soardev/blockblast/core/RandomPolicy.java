@@ -0,0 +1,25 @@
+package com.Soardev.blockblast.core;
+
+import java.util.Random;
+
+/** Uniformly random legal move: the baseline a careless player beats. */
+public final class RandomPolicy implements PlacementPolicy {
+
+    @Override
+    public int choose(GameSession session, Random random) {
+        long occupied = session.getBoard().occupied();
+        int chosen = NO_MOVE;
+        int seen = 0;
+        for (int slot = 0; slot < GameSession.TRAY_SIZE; slot++) {
+            ShapeType type = session.getTrayShape(slot);
+            if (type == null) continue;
+            for (int i = 0; i < Board.CELLS; i++) {
+                long mask = type.anchorMasks[i];
+                if (mask == 0 || (occupied & mask) != 0) continue;
+                // Reservoir sampling keeps the pick uniform without a move list
+                if (random.nextInt(++seen) == 0) chosen = slot * Board.CELLS + i;
+            }
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,41 @@
+package com.Soardev.blockblast.core;
+
+/**
+ * Every source of randomness in a run, derived from one 64-bit seed.
+ *
+ * Each purpose gets its own stream, so drawing more from one never shifts
+ * another: extra particles cannot change the next deal, and a level's
+ * garbage does not depend on how many shapes were dealt before it.
+ */
+public final class RandomStreams {
+
+    private static final long DEALS = 1, GARBAGE = 2, COSMETICS = 3;
+
+    private long seed;
+    // Re-seeded in place, so references handed out stay valid across runs
+    private final FastRandom deals = new FastRandom(0);
+    private final FastRandom garbage = new FastRandom(0);
+    private final FastRandom cosmetics = new FastRandom(0);
+
+    public RandomStreams(long seed) {
+        reseed(seed);
+    }
+
+    public void reseed(long seed) {
+        this.seed = seed;
+        deals.setSeed(FastRandom.streamSeed(seed, DEALS));
+        garbage.setSeed(FastRandom.streamSeed(seed, GARBAGE));
+        cosmetics.setSeed(FastRandom.streamSeed(seed, COSMETICS));
+    }
+
+    public long seed() { return seed; }
+
+    /** Shapes and their colors. */
+    public FastRandom deals() { return deals; }
+
+    /** Pre-placed blocks at the start of a level or daily challenge. */
+    public FastRandom garbage() { return garbage; }
+
+    /** Particles, shake and other effects that never touch the rules. */
+    public FastRandom cosmetics() { return cosmetics; }
+}
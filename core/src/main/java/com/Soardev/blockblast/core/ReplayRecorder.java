@@ -0,0 +1,107 @@
+package com.Soardev.blockblast.core;
+
+import java.util.Arrays;
+
+/**
+ * Writes a run as a compact binary log that {@link Replayer} can re-run.
+ *
+ * <pre>
+ * header:  'B' 'B' 'R' VERSION, colorCount, dealMode, zigzag(level), seed (8 bytes, big-endian)
+ * event:   varint(elapsedMillis &lt;&lt; 3 | type), then per type:
+ *            PLACE   1 byte: slot &lt;&lt; 6 | gy * 8 + gx
+ *            UNDO, REDO, SKIP, REVIVE   nothing
+ *            END     varint(score)
+ * </pre>
+ *
+ * Deals are not written: the seed and the moves regenerate them. A move
+ * costs its PLACE byte plus the varint header, which is three bytes when
+ * it comes a few seconds after the last event, so four bytes in all and
+ * about 1 KB for a 250-move game. Recording only appends to a byte array
+ * that starts at 4 KB, enough for about a thousand moves at that pace; a
+ * longer game doubles it.
+ */
+public final class ReplayRecorder {
+
+    // 2: fair deals weighted by the adaptive dealer; 3: deals no longer recorded; 4: undo rewinds the dealer
+    static final int VERSION = 4;
+    // Type 1 was DEAL before version 3
+    static final int PLACE = 0, UNDO = 2, SKIP = 3, REVIVE = 4, END = 5, REDO = 6;
+    static final int HEADER_BYTES = 4 + 3 + 8;
+
+    private byte[] buffer = new byte[4096];
+    private int length;
+    private long lastMillis;
+    // Events before the first begin() have no header to belong to
+    private boolean started;
+
+    // --- Called by GameSession ---
+
+    void begin(int colorCount, GameSession.DealMode dealMode, int level, long seed) {
+        length = 0;
+        started = true;
+        lastMillis = now();
+        writeByte('B');
+        writeByte('B');
+        writeByte('R');
+        writeByte(VERSION);
+        writeVarint(colorCount);
+        writeVarint(dealMode.ordinal());
+        writeVarint((level << 1) ^ (level >> 31));
+        for (int shift = 56; shift >= 0; shift -= 8) writeByte((int) (seed >>> shift));
+    }
+
+    void place(int slot, int gx, int gy) {
+        if (!started) return;
+        event(PLACE);
+        writeByte((slot << 6) | Board.index(gx, gy));
+    }
+
+    void undo() { event(UNDO); }
+    void redo() { event(REDO); }
+    void skip() { event(SKIP); }
+    void revive() { event(REVIVE); }
+
+    // --- Output ---
+
+    /** Bytes recorded so far, closed with an END event carrying {@code score}. Nothing is recorded if no run has started. */
+    public byte[] finish(int score) {
+        if (!started) return new byte[0];
+        int mark = length;
+        event(END);
+        writeVarint(score);
+        byte[] out = Arrays.copyOf(buffer, length);
+        length = mark; // The run may go on (revive), so keep recording after the snapshot
+        return out;
+    }
+
+    /** Drops the current run; nothing more is recorded until the next one starts. */
+    void discard() {
+        started = false;
+        length = 0;
+    }
+
+    public int size() { return length; }
+
+    private void event(int type) {
+        if (!started) return;
+        long millis = now();
+        long elapsed = Math.max(0, millis - lastMillis);
+        lastMillis = millis;
+        writeVarint((elapsed << 3) | type);
+    }
+
+    private static long now() { return System.nanoTime() / 1_000_000L; }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    private void writeByte(int b) {
+        if (length == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        buffer[length++] = (byte) b;
+    }
+}
@@ -0,0 +1,140 @@
+package com.Soardev.blockblast.core;
+
+/**
+ * Re-runs a recorded game through the rules, as fast as they go, and checks
+ * that every move is legal and the final score comes out the same. Deals
+ * are not recorded: they follow from the seed and the moves, so a dealer
+ * that changed shows up as an illegal move or a different score.
+ */
+public final class Replayer {
+
+    /** Outcome of one replay. */
+    public static final class Result {
+        public boolean matches;
+        public int level;
+        public long seed;
+        public int moves;
+        public int recordedScore = -1;
+        public int replayedScore;
+        public long durationMillis;
+        /** Why the replay diverged, or null when it matched. */
+        public String error;
+
+        @Override
+        public String toString() {
+            if (matches) return "OK level " + level + " seed " + seed + ": " + moves + " moves, score " + replayedScore;
+            return "MISMATCH level " + level + " seed " + seed + " after " + moves + " moves: " + error;
+        }
+    }
+
+    private final byte[] data;
+    private final LevelCatalog catalog;
+    private int pos;
+
+    private Replayer(byte[] data, LevelCatalog catalog) {
+        this.data = data;
+        this.catalog = catalog;
+    }
+
+    public static Result verify(byte[] data) {
+        return verify(data, null);
+    }
+
+    /** For games recorded with a level catalog set; Adventure layouts come from it. */
+    public static Result verify(byte[] data, LevelCatalog catalog) {
+        Result result = new Result();
+        try {
+            new Replayer(data, catalog).run(result);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            result.matches = false;
+            result.error = "truncated at byte " + data.length;
+        }
+        return result;
+    }
+
+    private void run(Result result) {
+        if (data.length < ReplayRecorder.HEADER_BYTES || data[0] != 'B' || data[1] != 'B' || data[2] != 'R') {
+            result.error = "not a replay";
+            return;
+        }
+        if (data[3] != ReplayRecorder.VERSION) {
+            result.error = "unsupported version " + data[3];
+            return;
+        }
+        pos = 4;
+        int colorCount = (int) readVarint();
+        GameSession.DealMode dealMode = GameSession.DealMode.values()[(int) readVarint()];
+        int zigzag = (int) readVarint();
+        result.level = (zigzag >>> 1) ^ -(zigzag & 1);
+        long seed = 0;
+        for (int i = 0; i < 8; i++) seed = (seed << 8) | (data[pos++] & 0xFF);
+        result.seed = seed;
+
+        GameSession session = new GameSession(colorCount, 0);
+        session.setDealMode(dealMode);
+        session.setLevelCatalog(catalog);
+        if (result.level == GameSession.LEVEL_DAILY) session.startDaily(seed);
+        else session.startLevel(result.level, seed);
+
+        while (pos < data.length) {
+            long header = readVarint();
+            result.durationMillis += header >>> 3;
+            int type = (int) (header & 7);
+            switch (type) {
+                case ReplayRecorder.PLACE: {
+                    int b = data[pos++] & 0xFF;
+                    int slot = b >>> 6, index = b & 63;
+                    if (!session.place(slot, index & 7, index >>> 3)) {
+                        fail(result, session, "illegal placement of slot " + slot + " at " + (index & 7) + "," + (index >>> 3));
+                        return;
+                    }
+                    result.moves++;
+                    break;
+                }
+                case ReplayRecorder.UNDO:
+                    if (!session.undo()) {
+                        fail(result, session, "undo not available");
+                        return;
+                    }
+                    break;
+                case ReplayRecorder.REDO:
+                    if (!session.redo()) {
+                        fail(result, session, "redo not available");
+                        return;
+                    }
+                    break;
+                case ReplayRecorder.SKIP: session.skip(); break;
+                case ReplayRecorder.REVIVE: session.revive(); break;
+                case ReplayRecorder.END:
+                    result.recordedScore = (int) readVarint();
+                    break;
+                default:
+                    fail(result, session, "unknown event " + type);
+                    return;
+            }
+        }
+
+        result.replayedScore = session.getScore();
+        if (result.recordedScore < 0) {
+            result.error = "no END event";
+        } else if (result.recordedScore != result.replayedScore) {
+            result.error = "score " + result.replayedScore + ", recorded " + result.recordedScore;
+        } else {
+            result.matches = true;
+        }
+    }
+
+    private static void fail(Result result, GameSession session, String error) {
+        result.replayedScore = session.getScore();
+        result.error = error;
+    }
+
+    private long readVarint() {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = data[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.Soardev.blockblast.core;
+
+import java.util.Random;
+
+/**
+ * Fair dealing: draws trios from an adaptive weighted sampler and checks
+ * them against the live board before they reach the tray.
+ *
+ * Weights follow the board and the player. Small pieces gain weight as the
+ * board fills, pieces that can complete a line right now get a bonus, and
+ * both terms are scaled by an assist level. The assist rises when the
+ * player's recent clear rate falls below target and drops as a Classic
+ * run's hardness grows. Hardness also favors large pieces. Draws come from
+ * an alias table, O(1) each, and the table is rebuilt only when the board
+ * or the (quantized) assist changes.
+ *
+ * A trio that can be placed in full is preferred; failing that, one with
+ * at least one playable piece; and if the samples miss, a slot is forced
+ * to a type that fits. Only a board where no shape fits at all gets an
+ * unplayable tray.
+ */
+final class ShapeDealer {
+
+    // Candidate trios drawn before settling for a partly playable one
+    private static final int ATTEMPTS = 6;
+    // Equal weight on an empty board; small pieces gain SMALL_BIAS per filled cell, scaled by size
+    private static final int BASE_WEIGHT = 64;
+    private static final int SMALL_BIAS = 8;
+    // Extra weight for a type with a placement that completes a line now
+    private static final int CLEAR_BONUS = 32;
+    // At full hardness each cell of a piece adds this much weight
+    private static final int HARD_PER_CELL = 8;
+
+    /** Share of moves that clear a line, x256, that the assist aims for. */
+    static final int TARGET_CLEAR_RATE = 90;
+    /** Hardness runs 0..MAX_HARDNESS. */
+    static final int MAX_HARDNESS = 256;
+    // Assist scales the helpful terms: 256 is neutral, 0 drops them, 512 doubles them
+    private static final int ASSIST_NEUTRAL = 256;
+    // Assist moves in steps of this, so a drifting clear rate does not rebuild the table every deal
+    private static final int ASSIST_STEP = 32;
+
+    private final int[] weights = new int[ShapeType.count()];
+    private final AliasSampler sampler = new AliasSampler(ShapeType.count());
+    private final AliasSampler fittingSampler = new AliasSampler(ShapeType.count());
+    private final ShapeType[] candidate = new ShapeType[GameSession.TRAY_SIZE];
+    private int fitting;   // bit per ShapeType ordinal that fits the current board
+    private int clearing;  // bit per ShapeType ordinal that can complete a line on it
+    private boolean hasFitting;
+
+    // What the tables were last built for
+    private boolean built;
+    private long builtBoard;
+    private int builtAssist, builtHardness;
+
+    /**
+     * Fills {@code out} with a fair trio for {@code occupied}. {@code clearRate}
+     * is the recent share of clearing moves (x256), {@code hardness} 0..MAX_HARDNESS.
+     */
+    void deal(long occupied, Random random, ShapeType[] out, int clearRate, int hardness) {
+        prepare(occupied, assist(clearRate, hardness), hardness);
+        boolean havePlayable = false;
+        for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+            for (int i = 0; i < GameSession.TRAY_SIZE; i++) candidate[i] = ShapeType.get(sampler.sample(random));
+            if (playable(candidate)) {
+                if (fitsTogether(occupied, candidate)) {
+                    System.arraycopy(candidate, 0, out, 0, GameSession.TRAY_SIZE);
+                    return;
+                }
+                if (!havePlayable) {
+                    System.arraycopy(candidate, 0, out, 0, GameSession.TRAY_SIZE);
+                    havePlayable = true;
+                }
+            }
+        }
+        if (havePlayable) return;
+
+        // Nothing sampled fits: keep the last draw but force one slot to a type that does
+        System.arraycopy(candidate, 0, out, 0, GameSession.TRAY_SIZE);
+        if (fitting != 0) {
+            if (!hasFitting) hasFitting = fittingSampler.build(weights, fitting);
+            out[random.nextInt(GameSession.TRAY_SIZE)] = ShapeType.get(fittingSampler.sample(random));
+        }
+    }
+
+    static int assist(int clearRate, int hardness) {
+        int assist = ASSIST_NEUTRAL + 2 * (TARGET_CLEAR_RATE - clearRate) - hardness;
+        assist = Math.max(0, Math.min(2 * ASSIST_NEUTRAL, assist));
+        return assist / ASSIST_STEP * ASSIST_STEP;
+    }
+
+    private void prepare(long occupied, int assist, int hardness) {
+        boolean boardChanged = !built || occupied != builtBoard;
+        if (!boardChanged && assist == builtAssist && hardness == builtHardness) return;
+        if (boardChanged) scan(occupied);
+        int filled = Long.bitCount(occupied);
+        for (int t = 0; t < weights.length; t++) {
+            int cells = ShapeType.get(t).cellCount();
+            int helpful = filled * SMALL_BIAS / cells + ((clearing & (1 << t)) != 0 ? CLEAR_BONUS : 0);
+            weights[t] = BASE_WEIGHT + helpful * assist / ASSIST_NEUTRAL + hardness * cells * HARD_PER_CELL / MAX_HARDNESS;
+        }
+        sampler.build(weights, -1);
+        hasFitting = false;
+        built = true;
+        builtBoard = occupied;
+        builtAssist = assist;
+        builtHardness = hardness;
+    }
+
+    // One pass over each type's placements: does it fit, and can it complete a line
+    private void scan(long occupied) {
+        fitting = 0;
+        clearing = 0;
+        for (int t = 0; t < weights.length; t++) {
+            for (long mask : ShapeType.get(t).placements) {
+                if ((occupied & mask) != 0) continue;
+                fitting |= 1 << t;
+                if (BoardEval.linesThrough(occupied | mask, mask) != 0) {
+                    clearing |= 1 << t;
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean playable(ShapeType[] trio) {
+        for (ShapeType type : trio) if ((fitting & (1 << type.ordinal())) != 0) return true;
+        return false;
+    }
+
+    /**
+     * True if some order of the trio can be placed piece by piece, each at its
+     * first free anchor and clearing lines as it goes. Conservative: a trio
+     * that only fits with smarter placement is reported as false.
+     */
+    private static boolean fitsTogether(long occupied, ShapeType[] trio) {
+        ShapeType a = trio[0], b = trio[1], c = trio[2];
+        return fitsInOrder(occupied, a, b, c) || fitsInOrder(occupied, a, c, b)
+                || fitsInOrder(occupied, b, a, c) || fitsInOrder(occupied, b, c, a)
+                || fitsInOrder(occupied, c, a, b) || fitsInOrder(occupied, c, b, a);
+    }
+
+    private static boolean fitsInOrder(long occupied, ShapeType first, ShapeType second, ShapeType third) {
+        occupied = placeFirstFit(occupied, first);
+        if (occupied == -1) return false;
+        occupied = placeFirstFit(occupied, second);
+        if (occupied == -1) return false;
+        return third.fitsAnywhere(occupied);
+    }
+
+    // Returns the board after placing at the first free anchor, or -1 (a full board) if none
+    private static long placeFirstFit(long occupied, ShapeType type) {
+        for (long mask : type.placements) {
+            if ((occupied & mask) != 0) continue;
+            long after = occupied | mask;
+            return after & ~BoardEval.linesThrough(after, mask);
+        }
+        return -1;
+    }
+}
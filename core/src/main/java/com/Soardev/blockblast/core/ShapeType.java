@@ -0,0 +1,85 @@
+package com.Soardev.blockblast.core;
+
+import java.util.Random;
+
+/**
+ * The shape catalog. Cells are (x, y) pairs relative to the top-left of the
+ * bounding box; everything else (bounding box, packed footprint, placement
+ * masks) is derived once here, so pieces in play only need to carry the type.
+ */
+public enum ShapeType {
+    DOT(0,0),
+    LINE_2(0,0, 1,0),
+    LINE_3(0,0, 1,0, 2,0),
+    LINE_4(0,0, 1,0, 2,0, 3,0),
+    SQUARE_2(0,0, 0,1, 1,0, 1,1),
+    SQUARE_3(0,0, 0,1, 0,2, 1,0, 1,1, 1,2, 2,0, 2,1, 2,2),
+    L_SMALL(0,0, 0,1, 1,1),
+    L_LARGE(0,0, 0,1, 0,2, 1,2),
+    T_SHAPE(0,0, 1,0, 2,0, 1,1),
+    Z_SHAPE(0,0, 1,0, 1,1, 2,1),
+    S_SHAPE(0,1, 1,1, 1,0, 2,0);
+
+    private static final ShapeType[] VALUES = values();
+
+    private final int[] cells;
+    public final int width, height;
+    // Footprint with the top-left at (0, 0), one bit per cell as on the board
+    public final long mask;
+    // Footprint per anchor cell (gy * 8 + gx), 0 where the shape would fall off the board
+    final long[] anchorMasks = new long[Board.CELLS];
+    // The non-zero entries of anchorMasks, packed for scanning
+    final long[] placements;
+    // Per board cell, the anchors whose footprint covers it
+    final long[] anchorsCovering = new long[Board.CELLS];
+
+    ShapeType(int... cells) {
+        this.cells = cells;
+        int maxX = 0, maxY = 0;
+        for (int i = 0; i < cells.length; i += 2) {
+            maxX = Math.max(maxX, cells[i]);
+            maxY = Math.max(maxY, cells[i + 1]);
+        }
+        width = maxX + 1;
+        height = maxY + 1;
+        long origin = 0;
+        for (int i = 0; i < cells.length; i += 2) origin |= Board.bit(cells[i], cells[i + 1]);
+        mask = origin;
+
+        // Within the bounding-box limits a placement is just the packed footprint shifted to the anchor
+        int legal = 0;
+        for (int gy = 0; gy + height <= Board.SIZE; gy++) {
+            for (int gx = 0; gx + width <= Board.SIZE; gx++) {
+                int anchor = Board.index(gx, gy);
+                long placed = origin << anchor;
+                anchorMasks[anchor] = placed;
+                legal++;
+                for (long m = placed; m != 0; m &= m - 1) {
+                    anchorsCovering[Long.numberOfTrailingZeros(m)] |= 1L << anchor;
+                }
+            }
+        }
+        placements = new long[legal];
+        int n = 0;
+        for (long placed : anchorMasks) if (placed != 0) placements[n++] = placed;
+    }
+
+    public static ShapeType get(int ordinal) { return VALUES[ordinal]; }
+    public static int count() { return VALUES.length; }
+    public static ShapeType getRandom(Random random) { return VALUES[random.nextInt(VALUES.length)]; }
+
+    public int cellCount() { return Long.bitCount(mask); }
+    public int cellX(int i) { return cells[i << 1]; }
+    public int cellY(int i) { return cells[(i << 1) + 1]; }
+
+    /** Bitboard footprint with the top-left anchored at (gx, gy), or 0 if any block falls off the board. */
+    public long maskAt(int gx, int gy) {
+        if ((gx | gy) < 0 || gx >= Board.SIZE || gy >= Board.SIZE) return 0;
+        return anchorMasks[Board.index(gx, gy)];
+    }
+
+    public boolean fitsAnywhere(long occupied) {
+        for (long mask : placements) if ((occupied & mask) == 0) return true;
+        return false;
+    }
+}
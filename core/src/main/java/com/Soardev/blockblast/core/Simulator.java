@@ -0,0 +1,132 @@
+package com.Soardev.blockblast.core;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Headless self-play. Plays many games per level with a pluggable policy,
+ * split across a fork/join pool. Every game derives its own seed from
+ * (seed, level, game index), so results are identical for a given seed no
+ * matter how the work is scheduled or how many cores run it.
+ */
+public final class Simulator {
+
+    public static final int DEFAULT_MAX_MOVES = 5000;
+    private static final int BATCH = 64;
+
+    private final ForkJoinPool pool;
+    private final Supplier<? extends PlacementPolicy> policies;
+    private final long seed;
+    private final int maxMoves;
+    private final GameSession.DealMode dealMode;
+    private final LevelCatalog catalog;
+
+    public Simulator(ForkJoinPool pool, Supplier<? extends PlacementPolicy> policies, long seed) {
+        this(pool, policies, seed, DEFAULT_MAX_MOVES);
+    }
+
+    public Simulator(ForkJoinPool pool, Supplier<? extends PlacementPolicy> policies, long seed, int maxMoves) {
+        this(pool, policies, seed, maxMoves, GameSession.DealMode.RANDOM);
+    }
+
+    public Simulator(ForkJoinPool pool, Supplier<? extends PlacementPolicy> policies, long seed, int maxMoves,
+                     GameSession.DealMode dealMode) {
+        this(pool, policies, seed, maxMoves, dealMode, null);
+    }
+
+    /** Plays the catalog's layouts and targets for the levels it covers. */
+    public Simulator(ForkJoinPool pool, Supplier<? extends PlacementPolicy> policies, long seed, int maxMoves,
+                     GameSession.DealMode dealMode, LevelCatalog catalog) {
+        this.pool = pool;
+        this.policies = policies;
+        this.seed = seed;
+        this.maxMoves = maxMoves;
+        this.dealMode = dealMode;
+        this.catalog = catalog;
+    }
+
+    public LevelStats runLevel(int level, int games) {
+        return pool.invoke(new GamesTask(level, 0, games));
+    }
+
+    /** Levels {@code from..to} inclusive, all submitted at once so the pool can balance across them. */
+    public LevelStats[] runLevels(int from, int to, int games) {
+        int[] levels = new int[to - from + 1];
+        for (int i = 0; i < levels.length; i++) levels[i] = from + i;
+        return runLevels(levels, games);
+    }
+
+    /** The given levels, in order, all submitted at once. */
+    public LevelStats[] runLevels(int[] levels, int games) {
+        GamesTask[] tasks = new GamesTask[levels.length];
+        for (int i = 0; i < levels.length; i++) {
+            tasks[i] = new GamesTask(levels[i], 0, games);
+            pool.execute(tasks[i]);
+        }
+        LevelStats[] out = new LevelStats[tasks.length];
+        for (int i = 0; i < tasks.length; i++) out[i] = tasks[i].join();
+        return out;
+    }
+
+    /** Spreads (seed, level, game) into independent per-game seeds. */
+    static long gameSeed(long seed, int level, int game) {
+        return FastRandom.mix(seed + 0x9E3779B97F4A7C15L * (((long) level << 32) | (game & 0xFFFFFFFFL)));
+    }
+
+    // ForkJoinTask is Serializable, but these only ever live inside the pool
+    @SuppressWarnings("serial")
+    private final class GamesTask extends RecursiveTask<LevelStats> {
+        private final int level, from, to;
+
+        GamesTask(int level, int from, int to) {
+            this.level = level;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LevelStats compute() {
+            if (to - from <= BATCH) return playBatch();
+            int mid = (from + to) >>> 1;
+            GamesTask left = new GamesTask(level, from, mid);
+            left.fork();
+            LevelStats right = new GamesTask(level, mid, to).compute();
+            LevelStats stats = left.join();
+            stats.add(right);
+            return stats;
+        }
+
+        private LevelStats playBatch() {
+            LevelStats stats = new LevelStats(level);
+            PlacementPolicy policy = policies.get();
+            FastRandom policyRandom = new FastRandom(0);
+            GameSession session = new GameSession(9, 0);
+            session.setDealMode(dealMode);
+            session.setLevelCatalog(catalog);
+            for (int game = from; game < to; game++) {
+                long s = gameSeed(seed, level, game);
+                policyRandom.setSeed(FastRandom.mix(s));
+                int moves = play(session, policy, policyRandom, level, s, maxMoves);
+                GameSession.Status status = session.getStatus();
+                stats.record(session.getScore(), moves,
+                        status == GameSession.Status.LEVEL_COMPLETE || status == GameSession.Status.DAILY_WIN);
+            }
+            return stats;
+        }
+    }
+
+    /** Plays one game from a fresh start until it ends or hits the move cap. Returns the number of moves made. */
+    static int play(GameSession session, PlacementPolicy policy, Random random, int level, long seed, int maxMoves) {
+        session.startLevel(level, seed);
+        int moves = 0;
+        while (session.getStatus() == GameSession.Status.PLAYING && moves < maxMoves) {
+            int move = policy.choose(session, random);
+            if (move == PlacementPolicy.NO_MOVE) break;
+            if (!session.place(PlacementPolicy.slotOf(move), PlacementPolicy.xOf(move), PlacementPolicy.yOf(move))) break;
+            moves++;
+        }
+        return moves;
+    }
+}
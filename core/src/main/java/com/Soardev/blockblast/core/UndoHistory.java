@@ -0,0 +1,129 @@
+package com.Soardev.blockblast.core;
+
+/**
+ * Ring buffer of compact game snapshots for multi-step undo and redo.
+ *
+ * Each entry is the state after a move: occupancy, packed colors, tray
+ * shapes and colors, legal anchors, score, combo, the fair dealer's clear
+ * rate and the deal RNG position, stored in flat primitive arrays
+ * allocated once. Restoring the dealer state too means undoing past a
+ * refill and playing on deals exactly what the first attempt would have,
+ * so undo cannot be used to fish for a better tray. Saving overwrites the next slot (the
+ * oldest when full); undo and redo only move the cursor and copy the
+ * entry back, so nothing is allocated after construction.
+ */
+final class UndoHistory {
+
+    private static final int TRAY = GameSession.TRAY_SIZE;
+    private static final int COLOR_WORDS = 4;
+
+    private final int capacity;
+    private final long[] occupied;
+    private final long[] colors;
+    private final byte[] trayShapes;   // ordinal + 1, 0 for an empty slot
+    private final byte[] trayColors;
+    private final long[] legal;
+    private final int[] scores;
+    private final int[] combos;
+    private final int[] clearRates;
+    private final long[] dealStates;   // xoroshiro s0, s1 per entry
+
+    // Entries oldest..newest are (head - size + 1 .. head) mod capacity; cursor is the one in play
+    private int head = -1;
+    private int size;
+    private int cursor = -1;
+
+    /** Keeps {@code depth} undo steps (depth + 1 states). */
+    UndoHistory(int depth) {
+        if (depth < 1) throw new IllegalArgumentException("depth must be at least 1: " + depth);
+        capacity = depth + 1;
+        occupied = new long[capacity];
+        colors = new long[capacity * COLOR_WORDS];
+        trayShapes = new byte[capacity * TRAY];
+        trayColors = new byte[capacity * TRAY];
+        legal = new long[capacity * TRAY];
+        scores = new int[capacity];
+        combos = new int[capacity];
+        clearRates = new int[capacity];
+        dealStates = new long[capacity * 2];
+    }
+
+    int depth() { return capacity - 1; }
+
+    /** Forgets everything; the next {@link #save} starts a new history. */
+    void clear() {
+        head = -1;
+        size = 0;
+        cursor = -1;
+    }
+
+    /** Records the current state as the newest entry, dropping any redo entries past the cursor. */
+    void save(Board board, ShapeType[] tray, int[] trayColorsIn, LegalMoves legalMoves, int score, int combo,
+              int clearRate, FastRandom deals) {
+        if (cursor >= 0) {
+            // Entries after the cursor are the undone future; cut them off
+            size -= distance(cursor, head);
+            head = cursor;
+        }
+        head = (head + 1) % capacity;
+        if (size < capacity) size++;
+        cursor = head;
+
+        int i = head;
+        occupied[i] = board.occupied;
+        System.arraycopy(board.colors, 0, colors, i * COLOR_WORDS, COLOR_WORDS);
+        for (int s = 0; s < TRAY; s++) {
+            trayShapes[i * TRAY + s] = (byte) (tray[s] == null ? 0 : tray[s].ordinal() + 1);
+            trayColors[i * TRAY + s] = (byte) trayColorsIn[s];
+            legal[i * TRAY + s] = legalMoves.anchors(s);
+        }
+        scores[i] = score;
+        combos[i] = combo;
+        clearRates[i] = clearRate;
+        dealStates[i * 2] = deals.state0();
+        dealStates[i * 2 + 1] = deals.state1();
+    }
+
+    boolean canUndo() { return cursor >= 0 && cursor != oldest(); }
+    boolean canRedo() { return cursor >= 0 && cursor != head; }
+
+    /** Undo steps taken since the newest entry. */
+    int stepsBack() { return cursor < 0 ? 0 : distance(cursor, head); }
+
+    boolean undo() {
+        if (!canUndo()) return false;
+        cursor = (cursor - 1 + capacity) % capacity;
+        return true;
+    }
+
+    boolean redo() {
+        if (!canRedo()) return false;
+        cursor = (cursor + 1) % capacity;
+        return true;
+    }
+
+    /**
+     * Copies the entry under the cursor back into the game, deal RNG included.
+     * Returns its score; the combo and clear rate are {@link #combo()} and {@link #clearRate()}.
+     */
+    int restore(Board board, ShapeType[] tray, int[] trayColorsOut, LegalMoves legalMoves, FastRandom deals) {
+        int i = cursor;
+        deals.setState(dealStates[i * 2], dealStates[i * 2 + 1]);
+        board.restore(occupied[i], colors, i * COLOR_WORDS);
+        for (int s = 0; s < TRAY; s++) {
+            int shape = trayShapes[i * TRAY + s];
+            tray[s] = shape == 0 ? null : ShapeType.get(shape - 1);
+            trayColorsOut[s] = trayColors[i * TRAY + s];
+            legalMoves.set(s, legal[i * TRAY + s]);
+        }
+        return scores[i];
+    }
+
+    int combo() { return combos[cursor]; }
+
+    int clearRate() { return clearRates[cursor]; }
+
+    private int oldest() { return (head - size + 1 + capacity) % capacity; }
+
+    private int distance(int from, int to) { return (to - from + capacity) % capacity; }
+}
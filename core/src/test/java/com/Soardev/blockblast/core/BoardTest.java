@@ -0,0 +1,80 @@
+package com.Soardev.blockblast.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class BoardTest {
+
+    @Test
+    public void fillCountersFollowPlaceAndClear() {
+        Random random = new Random(1);
+        Board board = new Board();
+        for (int step = 0; step < 2000; step++) {
+            long mask = random.nextLong() & random.nextLong();
+            if (random.nextBoolean()) board.place(mask, 1 + random.nextInt(8));
+            else board.clear(mask);
+            assertCounters(board);
+        }
+        board.reset();
+        assertCounters(board);
+        assertEquals(0, board.count());
+    }
+
+    @Test
+    public void placeKeepsColorsAndOverwritesFilledCells() {
+        Board board = new Board();
+        board.place(Board.rowMask(2), 3);
+        board.place(Board.bit(4, 2) | Board.bit(4, 3), 7);
+        assertEquals(9, board.count());
+        assertEquals(3, board.colorAt(0, 2));
+        assertEquals(7, board.colorAt(4, 2));
+        assertEquals(7, board.colorAt(4, 3));
+        assertCounters(board);
+    }
+
+    @Test
+    public void fullLinesThroughFindsOnlyTouchedFullLines() {
+        Board board = new Board();
+        board.place(Board.rowMask(0), 1);
+        board.place(Board.rowMask(5) & ~Board.bit(3, 5), 1);
+        // Row 0 is full but the placement below does not touch it
+        assertEquals(0, board.fullLinesThrough(Board.bit(2, 5)));
+        assertEquals(Board.rowMask(0), board.fullLinesThrough(Board.bit(6, 0)));
+
+        board.place(Board.bit(3, 5), 1);
+        assertEquals(Board.rowMask(5), board.fullLinesThrough(Board.bit(3, 5)));
+
+        board.place(Board.colMask(3), 1);
+        long cross = Board.rowMask(0) | Board.rowMask(5) | Board.colMask(3);
+        assertEquals(cross, board.fullLinesThrough(Board.bit(3, 5) | Board.bit(3, 0)));
+        assertEquals(Board.colMask(3) | Board.rowMask(5), board.fullLinesThrough(Board.bit(3, 5)));
+    }
+
+    @Test
+    public void lineCountCountsRowsAndColumns() {
+        assertEquals(0, Board.lineCount(0));
+        assertEquals(1, Board.lineCount(Board.rowMask(7)));
+        assertEquals(1, Board.lineCount(Board.colMask(0)));
+        assertEquals(2, Board.lineCount(Board.rowMask(1) | Board.colMask(6)));
+        assertEquals(Board.SIZE * 2, Board.lineCount(-1L));
+        // A partial line is not a line
+        assertEquals(0, Board.lineCount(Board.rowMask(3) & ~Board.bit(0, 3)));
+        for (int rows = 0; rows < 256; rows += 7) {
+            for (int cols = 0; cols < 256; cols += 11) {
+                long lines = Board.linesMask(rows, cols);
+                assertEquals(Integer.bitCount(rows) + Integer.bitCount(cols), Board.lineCount(lines));
+            }
+        }
+    }
+
+    private static void assertCounters(Board board) {
+        long occupied = board.occupied();
+        for (int i = 0; i < Board.SIZE; i++) {
+            assertEquals("row " + i, Long.bitCount(occupied & Board.rowMask(i)), board.rowFill[i]);
+            assertEquals("column " + i, Long.bitCount(occupied & Board.colMask(i)), board.colFill[i]);
+        }
+    }
+}
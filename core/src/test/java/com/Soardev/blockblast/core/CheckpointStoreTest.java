@@ -0,0 +1,97 @@
+package com.Soardev.blockblast.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CheckpointStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void savedRunResumesExactly() throws IOException {
+        File file = new File(folder.getRoot(), "checkpoint.bin");
+        // Writes run inline, so the file is up to date when save() returns
+        CheckpointStore store = new CheckpointStore(file, Runnable::run);
+        assertNull(store.load());
+
+        GameSession session = new GameSession(6, 9);
+        session.startLevel(30);
+        Random random = new Random(9);
+        for (int i = 0; i < 15; i++) Moves.playRandom(session, random);
+        store.save(session);
+
+        byte[] data = store.load();
+        assertNotNull(data);
+        GameSession resumed = new GameSession(6, 0);
+        assertTrue(resumed.readSnapshot(data));
+        assertEquals(session.getScore(), resumed.getScore());
+        assertEquals(session.getComboCount(), resumed.getComboCount());
+        assertEquals(session.getLevel(), resumed.getLevel());
+        assertEquals(session.getStatus(), resumed.getStatus());
+        assertEquals(session.getBoard().occupied(), resumed.getBoard().occupied());
+        for (int slot = 0; slot < GameSession.TRAY_SIZE; slot++) {
+            assertEquals(session.getTrayShape(slot), resumed.getTrayShape(slot));
+            assertEquals(session.getTrayColor(slot), resumed.getTrayColor(slot));
+            assertEquals(session.legalAnchors(slot), resumed.legalAnchors(slot));
+        }
+        byte[] again = new byte[GameSession.SNAPSHOT_BYTES];
+        resumed.writeSnapshot(again);
+        assertArrayEquals(data, again);
+
+        // Both runs deal the same pieces from here on
+        Random a = new Random(1), b = new Random(1);
+        for (int i = 0; i < 30; i++) assertEquals(Moves.playRandom(session, a), Moves.playRandom(resumed, b));
+        assertEquals(session.getScore(), resumed.getScore());
+    }
+
+    @Test
+    public void clearRemovesTheFile() throws IOException {
+        File file = new File(folder.getRoot(), "checkpoint.bin");
+        CheckpointStore store = new CheckpointStore(file, Runnable::run);
+        GameSession session = new GameSession(6, 1);
+        session.startLevel(GameSession.LEVEL_CLASSIC);
+        store.save(session);
+        assertTrue(file.exists());
+        store.clear();
+        assertFalse(file.exists());
+        assertNull(store.load());
+    }
+
+    @Test
+    public void damagedSnapshotIsRejected() throws IOException {
+        File file = new File(folder.getRoot(), "checkpoint.bin");
+        CheckpointStore store = new CheckpointStore(file, Runnable::run);
+        GameSession session = new GameSession(6, 2);
+        session.startLevel(GameSession.LEVEL_CLASSIC);
+        store.save(session);
+
+        byte[] data = store.load();
+        data[40] ^= 1;
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(data);
+        }
+        assertFalse(new GameSession(6, 0).readSnapshot(store.load()));
+        // Snapshots are tied to the color count they were taken with
+        store.save(session);
+        assertFalse(new GameSession(5, 0).readSnapshot(store.load()));
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[GameSession.SNAPSHOT_BYTES / 2]);
+        }
+        assertNull(store.load());
+    }
+}
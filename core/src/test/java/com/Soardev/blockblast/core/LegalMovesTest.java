@@ -0,0 +1,65 @@
+package com.Soardev.blockblast.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class LegalMovesTest {
+
+    @Test
+    public void incrementalUpdatesMatchFullScan() {
+        Random random = new Random(7);
+        for (int game = 0; game < 50; game++) {
+            GameSession session = new GameSession(6, game);
+            session.startLevel(game % 3 == 0 ? GameSession.LEVEL_CLASSIC : 20 + game);
+            assertMatchesScan(session);
+            for (int step = 0; step < 300; step++) {
+                int action = random.nextInt(20);
+                if (action == 0) session.undo();
+                else if (action == 1) session.redo();
+                else if (action == 2) session.skip();
+                else if (Moves.playRandom(session, random) == PlacementPolicy.NO_MOVE) session.revive();
+                assertMatchesScan(session);
+            }
+        }
+    }
+
+    @Test
+    public void standaloneUpdatesMatchFullScan() {
+        Random random = new Random(3);
+        LegalMoves legal = new LegalMoves();
+        ShapeType[] tray = new ShapeType[GameSession.TRAY_SIZE];
+        for (int i = 0; i < tray.length; i++) tray[i] = ShapeType.getRandom(random);
+        long occupied = 0;
+        legal.rescanAll(tray, occupied);
+        for (int step = 0; step < 5000; step++) {
+            long cells = random.nextLong() & random.nextLong() & random.nextLong();
+            if (random.nextBoolean()) {
+                cells &= ~occupied;
+                occupied |= cells;
+                legal.filled(tray, cells);
+            } else {
+                cells &= occupied;
+                occupied &= ~cells;
+                legal.cleared(tray, cells, occupied);
+            }
+            for (int slot = 0; slot < tray.length; slot++) {
+                assertEquals(Moves.bruteForceAnchors(tray[slot], occupied), legal.anchors(slot));
+            }
+        }
+    }
+
+    private static void assertMatchesScan(GameSession session) {
+        long occupied = session.getBoard().occupied();
+        boolean any = false;
+        for (int slot = 0; slot < GameSession.TRAY_SIZE; slot++) {
+            long expected = Moves.bruteForceAnchors(session.getTrayShape(slot), occupied);
+            assertEquals("slot " + slot, expected, session.legalAnchors(slot));
+            assertEquals(Long.bitCount(expected), session.legalMoveCount(slot));
+            any |= expected != 0;
+        }
+        assertEquals(any, session.canAnyShapeFit());
+    }
+}
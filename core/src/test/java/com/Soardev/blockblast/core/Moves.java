@@ -0,0 +1,41 @@
+package com.Soardev.blockblast.core;
+
+import java.util.Random;
+
+/** Random legal play for the engine tests. */
+final class Moves {
+
+    private Moves() {}
+
+    /** Plays one random legal move and returns it, or {@link PlacementPolicy#NO_MOVE} if there is none. */
+    static int playRandom(GameSession session, Random random) {
+        if (session.getStatus() != GameSession.Status.PLAYING) return PlacementPolicy.NO_MOVE;
+        int start = random.nextInt(GameSession.TRAY_SIZE);
+        for (int k = 0; k < GameSession.TRAY_SIZE; k++) {
+            int slot = (start + k) % GameSession.TRAY_SIZE;
+            long anchors = session.legalAnchors(slot);
+            if (anchors == 0) continue;
+            for (int skip = random.nextInt(Long.bitCount(anchors)); skip > 0; skip--) anchors &= anchors - 1;
+            int i = Long.numberOfTrailingZeros(anchors);
+            session.place(slot, i & 7, i >>> 3);
+            return slot * Board.CELLS + i;
+        }
+        return PlacementPolicy.NO_MOVE;
+    }
+
+    /** Plays a move returned by {@link #playRandom} again. */
+    static boolean replay(GameSession session, int move) {
+        return session.place(PlacementPolicy.slotOf(move), PlacementPolicy.xOf(move), PlacementPolicy.yOf(move));
+    }
+
+    /** Every anchor where the piece fits, found by testing all 64. */
+    static long bruteForceAnchors(ShapeType type, long occupied) {
+        if (type == null) return 0;
+        long anchors = 0;
+        for (int i = 0; i < Board.CELLS; i++) {
+            long mask = type.anchorMasks[i];
+            if (mask != 0 && (mask & occupied) == 0) anchors |= 1L << i;
+        }
+        return anchors;
+    }
+}
@@ -0,0 +1,92 @@
+package com.Soardev.blockblast.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReplayTest {
+
+    @Test
+    public void plainGameReplays() {
+        GameSession session = recordedSession(GameSession.DealMode.RANDOM, 1);
+        Random random = new Random(1);
+        while (Moves.playRandom(session, random) != PlacementPolicy.NO_MOVE) { }
+        Replayer.Result result = Replayer.verify(session.getRecorder().finish(session.getScore()));
+        assertTrue(result.toString(), result.matches);
+        assertEquals(session.getScore(), result.replayedScore);
+    }
+
+    @Test
+    public void undoRedoSkipAndReviveReplay() {
+        for (GameSession.DealMode mode : GameSession.DealMode.values()) {
+            for (long seed = 0; seed < 10; seed++) {
+                GameSession session = recordedSession(mode, seed);
+                Random random = new Random(seed);
+                int moves = 0;
+                for (int step = 0; step < 400; step++) {
+                    int action = random.nextInt(16);
+                    if (action == 0) session.undo();
+                    else if (action == 1) session.redo();
+                    else if (action == 2) session.skip();
+                    else if (Moves.playRandom(session, random) != PlacementPolicy.NO_MOVE) moves++;
+                    else if (!session.hasRevived()) session.revive();
+                    else break;
+                }
+                Replayer.Result result = Replayer.verify(session.getRecorder().finish(session.getScore()));
+                assertTrue(mode + " seed " + seed + ": " + result, result.matches);
+                assertEquals(moves, result.moves);
+                assertEquals(session.getScore(), result.replayedScore);
+            }
+        }
+    }
+
+    @Test
+    public void wrongScoreIsReported() {
+        GameSession session = recordedSession(GameSession.DealMode.FAIR, 3);
+        Random random = new Random(3);
+        for (int i = 0; i < 20; i++) Moves.playRandom(session, random);
+        Replayer.Result result = Replayer.verify(session.getRecorder().finish(session.getScore() + 10));
+        assertFalse(result.matches);
+        assertNotNull(result.error);
+    }
+
+    @Test
+    public void damagedReplaysAreRejected() {
+        GameSession session = recordedSession(GameSession.DealMode.RANDOM, 4);
+        Random random = new Random(4);
+        for (int i = 0; i < 20; i++) Moves.playRandom(session, random);
+        byte[] data = session.getRecorder().finish(session.getScore());
+
+        assertFalse(Replayer.verify(Arrays.copyOf(data, data.length - 1)).matches);
+        assertFalse(Replayer.verify(Arrays.copyOf(data, ReplayRecorder.HEADER_BYTES - 1)).matches);
+        byte[] wrongMagic = data.clone();
+        wrongMagic[0] = 'X';
+        assertEquals("not a replay", Replayer.verify(wrongMagic).error);
+        byte[] wrongVersion = data.clone();
+        wrongVersion[3] = ReplayRecorder.VERSION + 1;
+        assertFalse(Replayer.verify(wrongVersion).matches);
+    }
+
+    @Test
+    public void resumedRunIsNotRecorded() {
+        GameSession session = recordedSession(GameSession.DealMode.RANDOM, 5);
+        byte[] snapshot = new byte[GameSession.SNAPSHOT_BYTES];
+        session.writeSnapshot(snapshot);
+        assertTrue(session.readSnapshot(snapshot));
+        assertEquals(0, session.getRecorder().finish(session.getScore()).length);
+    }
+
+    private static GameSession recordedSession(GameSession.DealMode mode, long seed) {
+        GameSession session = new GameSession(6, seed);
+        session.setDealMode(mode);
+        session.setRecorder(new ReplayRecorder());
+        session.startLevel(GameSession.LEVEL_CLASSIC);
+        return session;
+    }
+}
@@ -0,0 +1,125 @@
+package com.Soardev.blockblast.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UndoHistoryTest {
+
+    private static final int DEPTH = 4;
+
+    @Test
+    public void keepsOnlyTheLastDepthSteps() {
+        GameSession session = newSession(DEPTH);
+        List<byte[]> positions = new ArrayList<>();
+        positions.add(snapshot(session));
+        // Greedy play lasts long enough to wrap the ring more than once
+        PlacementPolicy policy = new GreedyPolicy();
+        Random random = new Random(11);
+        for (int i = 0; i < DEPTH * 3; i++) {
+            int move = policy.choose(session, random);
+            assertTrue(Moves.replay(session, move));
+            positions.add(snapshot(session));
+        }
+        assertEquals(0, session.getUndoSteps());
+        // Each undo lands exactly on an earlier position, clear rate and dealer state included
+        for (int k = 1; k <= DEPTH; k++) {
+            assertTrue("undo " + k, session.undo());
+            assertEquals(k, session.getUndoSteps());
+            assertArrayEquals("undo " + k, positions.get(positions.size() - 1 - k), snapshot(session));
+        }
+        // Older entries were overwritten when the ring wrapped
+        assertFalse(session.canUndo());
+        assertFalse(session.undo());
+
+        for (int k = DEPTH - 1; k >= 0; k--) {
+            assertTrue(session.redo());
+            assertArrayEquals(positions.get(positions.size() - 1 - k), snapshot(session));
+        }
+        assertFalse(session.canRedo());
+    }
+
+    @Test
+    public void newMoveDiscardsRedoSteps() {
+        GameSession session = newSession(DEPTH);
+        Random random = new Random(5);
+        for (int i = 0; i < 3; i++) Moves.playRandom(session, random);
+        assertTrue(session.undo());
+        assertTrue(session.undo());
+        assertTrue(session.canRedo());
+
+        assertNotEquals(PlacementPolicy.NO_MOVE, Moves.playRandom(session, random));
+        assertFalse(session.canRedo());
+        assertFalse(session.redo());
+        assertEquals(0, session.getUndoSteps());
+        // The discarded steps are gone; the one before the new move is still there
+        assertTrue(session.undo());
+        assertTrue(session.undo());
+        assertFalse(session.canUndo());
+    }
+
+    @Test
+    public void undoThenSameMoveDealsTheSameTray() {
+        GameSession session = newSession(DEPTH);
+        Random random = new Random(23);
+        // Play until a move empties the tray and triggers a deal
+        int move;
+        byte[] after;
+        do {
+            move = Moves.playRandom(session, random);
+            assertNotEquals(PlacementPolicy.NO_MOVE, move);
+            after = snapshot(session);
+        } while (!trayFull(session));
+
+        assertTrue(session.undo());
+        assertTrue(Moves.replay(session, move));
+        assertArrayEquals(after, snapshot(session));
+    }
+
+    @Test
+    public void skipAndReviveStartANewHistory() {
+        GameSession session = newSession(DEPTH);
+        Random random = new Random(2);
+        for (int i = 0; i < 3; i++) Moves.playRandom(session, random);
+        session.skip();
+        assertFalse(session.canUndo());
+        Moves.playRandom(session, random);
+        assertTrue(session.canUndo());
+        session.revive();
+        assertFalse(session.canUndo());
+        assertFalse(session.canRedo());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroDepth() {
+        new UndoHistory(0);
+    }
+
+    private static GameSession newSession(int depth) {
+        GameSession session = new GameSession(6, 42);
+        session.setUndoDepth(depth);
+        session.startLevel(GameSession.LEVEL_CLASSIC);
+        return session;
+    }
+
+    private static boolean trayFull(GameSession session) {
+        for (int slot = 0; slot < GameSession.TRAY_SIZE; slot++) {
+            if (session.getTrayShape(slot) == null) return false;
+        }
+        return true;
+    }
+
+    private static byte[] snapshot(GameSession session) {
+        byte[] out = new byte[GameSession.SNAPSHOT_BYTES];
+        session.writeSnapshot(out);
+        return out;
+    }
+}
@@ -0,0 +1,61 @@
+package com.Soardev.blockblast.tools;
+
+import com.Soardev.blockblast.core.DailyChallenge;
+import com.Soardev.blockblast.core.GameSession;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Builds the daily challenges for a range of dates, exactly as the app
+ * does, and prints one CSV row per date. Exits with status 1 if a date has
+ * no seed that reaches the target or two dates share a seed.
+ *
+ * Options:
+ *   --from YYYY-MM-DD   first date (default today)
+ *   --to YYYY-MM-DD     last date, inclusive (default --from)
+ *   --colors N          palette size the app deals from (default 9)
+ */
+public final class DailyChallenges {
+
+    public static void main(String[] args) {
+        LocalDate from = LocalDate.now(), to = null;
+        int colors = 9;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (arg) {
+                case "--from": from = LocalDate.parse(require(arg, value)); i++; break;
+                case "--to": to = LocalDate.parse(require(arg, value)); i++; break;
+                case "--colors": colors = Integer.parseInt(require(arg, value)); i++; break;
+                default: throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (to == null) to = from;
+
+        boolean ok = true;
+        Set<Long> seeds = new HashSet<>();
+        System.out.println("date,seed,attempt,reachable,witness_score,witness_moves,millis");
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            long start = System.nanoTime();
+            long epochDay = DailyChallenge.epochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+            DailyChallenge daily = DailyChallenge.generate(epochDay, colors, GameSession.DealMode.FAIR);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println(String.format(Locale.US, "%s,%016x,%d,%b,%d,%d,%d", date, daily.seed, daily.attempt,
+                    daily.reachable, daily.witnessScore, daily.witnessMoves, millis));
+            if (!daily.reachable) ok = false;
+            if (!seeds.add(daily.seed)) {
+                System.err.println(date + ": seed already used by an earlier date");
+                ok = false;
+            }
+        }
+        if (!ok) System.exit(1);
+    }
+
+    private static String require(String option, String value) {
+        if (value == null) throw new IllegalArgumentException(option + " needs a value");
+        return value;
+    }
+}
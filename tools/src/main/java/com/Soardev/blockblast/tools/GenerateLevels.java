@@ -0,0 +1,194 @@
+package com.Soardev.blockblast.tools;
+
+import com.Soardev.blockblast.core.Board;
+import com.Soardev.blockblast.core.FastRandom;
+import com.Soardev.blockblast.core.GameSession;
+import com.Soardev.blockblast.core.LevelCatalog;
+import com.Soardev.blockblast.core.LevelStats;
+import com.Soardev.blockblast.core.PlacementPolicy;
+import com.Soardev.blockblast.core.Simulator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Builds the Adventure level catalog (see LevelCatalog) that ships in the
+ * app's assets.
+ *
+ * For every level it draws a garbage layout (distinct cells, no complete
+ * row or column), plays it headless until game over, and redraws layouts
+ * whose median score falls well below an empty board's: the solvability
+ * check. The target is then set at the score the policy reaches with the
+ * level's planned win rate, capped at the old formula, and the targets are
+ * smoothed into a non-decreasing curve (isotonic regression: a level never
+ * asks for less than the one before it, and sampling noise is averaged out
+ * rather than ratcheted up). A second batch of games on fresh seeds
+ * measures the win rate that gets stored. All levels of a round are
+ * simulated together on a fork/join pool.
+ *
+ * Options:
+ *   --out FILE        output path (default app/src/main/assets/levels.bin)
+ *   --levels N        number of levels (default 500)
+ *   --games N         games per level per round (default 500)
+ *   --seed S          base seed; same seed, same catalog (default 1)
+ *   --policy NAME     greedy | random | solver (default greedy)
+ *   --threads N       worker threads (default: all cores)
+ */
+public final class GenerateLevels {
+
+    // Planned share of games the policy wins, eased from the first level to the last
+    static final double WIN_RATE_FIRST = 0.85;
+    static final double WIN_RATE_LAST = 0.15;
+    // A layout is rejected if its median score is below this share of an empty board's
+    static final double MIN_MEDIAN_RATIO = 0.6;
+    static final int MAX_ATTEMPTS = 8;
+    static final int MAX_GARBAGE = 12;
+    static final int MIN_TARGET = 500;
+
+    public static void main(String[] args) throws IOException {
+        String out = "app/src/main/assets/" + LevelCatalog.ASSET_NAME;
+        int levelCount = GameSession.MAX_LEVEL;
+        int games = 500;
+        long seed = 1;
+        String policyName = "greedy";
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (arg) {
+                case "--out": out = require(arg, value); i++; break;
+                case "--levels": levelCount = Integer.parseInt(require(arg, value)); i++; break;
+                case "--games": games = Integer.parseInt(require(arg, value)); i++; break;
+                case "--seed": seed = Long.parseLong(require(arg, value)); i++; break;
+                case "--policy": policyName = require(arg, value); i++; break;
+                case "--threads": threads = Integer.parseInt(require(arg, value)); i++; break;
+                default: throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        Supplier<PlacementPolicy> policies = SimulateLevels.policyFactory(policyName);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            byte[] catalog = generate(pool, policies, levelCount, games, seed);
+            Files.write(Paths.get(out), catalog);
+            System.err.printf("Wrote %s (%d bytes) in %.1f s%n", out, catalog.length, (System.nanoTime() - start) / 1e9);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    static byte[] generate(ForkJoinPool pool, Supplier<PlacementPolicy> policies, int levelCount, int games, long seed) {
+        long[] garbage = new long[levelCount];
+        int[] targets = new int[levelCount];
+        float[] winRates = new float[levelCount];
+        // Untargeted runs: play every game to the end to see the full score spread
+        Arrays.fill(targets, Integer.MAX_VALUE);
+
+        int[] baseline = {1};
+        int emptyMedian = measure(pool, policies, seed, garbage, targets, winRates, baseline, games)[0].scorePercentile(0.5);
+        int minMedian = (int) (emptyMedian * MIN_MEDIAN_RATIO);
+
+        LevelStats[] untargeted = new LevelStats[levelCount];
+        int[] bestMedian = new int[levelCount];
+        Arrays.fill(bestMedian, -1);
+        long[] bestLayout = new long[levelCount];
+        int[] pending = new int[levelCount];
+        for (int i = 0; i < levelCount; i++) pending[i] = i + 1;
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && pending.length > 0; attempt++) {
+            for (int level : pending) garbage[level - 1] = layout(seed, level, attempt);
+            LevelStats[] stats = measure(pool, policies, seed + attempt, garbage, targets, winRates, pending, games);
+            int left = 0;
+            for (int i = 0; i < pending.length; i++) {
+                int level = pending[i];
+                int median = stats[i].scorePercentile(0.5);
+                if (median > bestMedian[level - 1]) {
+                    bestMedian[level - 1] = median;
+                    bestLayout[level - 1] = garbage[level - 1];
+                    untargeted[level - 1] = stats[i];
+                }
+                if (median < minMedian) pending[left++] = level;
+            }
+            pending = Arrays.copyOf(pending, left);
+            System.err.printf("attempt %d: %d levels need another layout%n", attempt + 1, left);
+        }
+        for (int level : pending) System.err.printf("level %d: kept best layout, median %d < %d%n", level, bestMedian[level - 1], minMedian);
+
+        for (int level = 1; level <= levelCount; level++) {
+            garbage[level - 1] = bestLayout[level - 1];
+            int planned = untargeted[level - 1].scorePercentile(1 - plannedWinRate(level, levelCount));
+            targets[level - 1] = Math.max(MIN_TARGET, Math.min(GameSession.targetScoreFor(level), planned));
+        }
+        smoothTargets(targets);
+
+        // Held-out seeds, so the stored win rate is not fitted to the games that set the target
+        int[] all = new int[levelCount];
+        for (int i = 0; i < levelCount; i++) all[i] = i + 1;
+        LevelStats[] check = measure(pool, policies, ~seed, garbage, targets, winRates, all, games);
+        for (int i = 0; i < levelCount; i++) {
+            winRates[i] = (float) check[i].winRate();
+            System.out.println(String.format(Locale.US, "%d,%d,%d,%.3f,%.3f",
+                    i + 1, Long.bitCount(garbage[i]), targets[i], plannedWinRate(i + 1, levelCount), winRates[i]));
+        }
+        return LevelCatalog.encode(garbage, targets, winRates);
+    }
+
+    /**
+     * Replaces {@code targets} with the closest non-decreasing sequence in the
+     * least-squares sense (pool adjacent violators): each run that goes down
+     * is merged into one block at its mean.
+     */
+    static void smoothTargets(int[] targets) {
+        int n = targets.length;
+        double[] sums = new double[n];
+        int[] widths = new int[n];
+        int blocks = 0;
+        for (int target : targets) {
+            sums[blocks] = target;
+            widths[blocks] = 1;
+            blocks++;
+            while (blocks > 1 && sums[blocks - 2] / widths[blocks - 2] > sums[blocks - 1] / widths[blocks - 1]) {
+                sums[blocks - 2] += sums[blocks - 1];
+                widths[blocks - 2] += widths[blocks - 1];
+                blocks--;
+            }
+        }
+        // Rounding a non-decreasing sequence keeps it non-decreasing
+        for (int b = 0, i = 0; b < blocks; b++) {
+            int mean = (int) Math.round(sums[b] / widths[b]);
+            for (int k = 0; k < widths[b]; k++) targets[i++] = mean;
+        }
+    }
+
+    private static LevelStats[] measure(ForkJoinPool pool, Supplier<PlacementPolicy> policies, long seed,
+                                        long[] garbage, int[] targets, float[] winRates, int[] levels, int games) {
+        LevelCatalog catalog = LevelCatalog.wrap(ByteBuffer.wrap(LevelCatalog.encode(garbage, targets, winRates)));
+        Simulator simulator = new Simulator(pool, policies, seed, Simulator.DEFAULT_MAX_MOVES,
+                GameSession.DealMode.FAIR, catalog);
+        return simulator.runLevels(levels, games);
+    }
+
+    /** Same garbage count as the old runtime generator, but distinct cells and no complete line. */
+    static long layout(long seed, int level, int attempt) {
+        int count = level > 10 ? Math.min(MAX_GARBAGE, (level - 10) / 2) : 0;
+        return Board.scatter(FastRandom.stream(seed, ((long) level << 8) | attempt), count);
+    }
+
+    static double plannedWinRate(int level, int levelCount) {
+        double t = levelCount <= 1 ? 0 : (double) (level - 1) / (levelCount - 1);
+        return WIN_RATE_FIRST - (WIN_RATE_FIRST - WIN_RATE_LAST) * Math.sqrt(t);
+    }
+
+    private static String require(String option, String value) {
+        if (value == null) throw new IllegalArgumentException(option + " needs a value");
+        return value;
+    }
+}
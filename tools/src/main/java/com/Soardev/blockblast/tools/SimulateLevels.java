@@ -0,0 +1,89 @@
+package com.Soardev.blockblast.tools;
+
+import com.Soardev.blockblast.core.GameSession;
+import com.Soardev.blockblast.core.GreedyPolicy;
+import com.Soardev.blockblast.core.HintPolicy;
+import com.Soardev.blockblast.core.LevelStats;
+import com.Soardev.blockblast.core.PlacementPolicy;
+import com.Soardev.blockblast.core.RandomPolicy;
+import com.Soardev.blockblast.core.Simulator;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Monte Carlo self-play over Adventure levels. Prints one CSV row per level
+ * (win rate, score percentiles, game length) to stdout.
+ *
+ * Options:
+ *   --levels A-B      level range, inclusive (default 1-500; 0 is Classic)
+ *   --games N         games per level (default 10000)
+ *   --seed S          base seed; same seed, same report (default 1)
+ *   --policy NAME     greedy | random | solver (default greedy)
+ *   --threads N       worker threads (default: all cores)
+ *   --max-moves N     cap per game (default 5000)
+ *   --deal MODE       random | fair (default random)
+ */
+public final class SimulateLevels {
+
+    public static void main(String[] args) {
+        int fromLevel = 1, toLevel = 500;
+        int games = 10000;
+        long seed = 1;
+        String policyName = "greedy";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxMoves = Simulator.DEFAULT_MAX_MOVES;
+        GameSession.DealMode dealMode = GameSession.DealMode.RANDOM;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (arg) {
+                case "--levels": {
+                    String[] range = require(arg, value).split("-");
+                    fromLevel = Integer.parseInt(range[0]);
+                    toLevel = range.length > 1 ? Integer.parseInt(range[1]) : fromLevel;
+                    i++;
+                    break;
+                }
+                case "--games": games = Integer.parseInt(require(arg, value)); i++; break;
+                case "--seed": seed = Long.parseLong(require(arg, value)); i++; break;
+                case "--policy": policyName = require(arg, value); i++; break;
+                case "--threads": threads = Integer.parseInt(require(arg, value)); i++; break;
+                case "--max-moves": maxMoves = Integer.parseInt(require(arg, value)); i++; break;
+                case "--deal": dealMode = GameSession.DealMode.valueOf(require(arg, value).toUpperCase(Locale.ROOT)); i++; break;
+                default: throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        Supplier<PlacementPolicy> policies = policyFactory(policyName);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            Simulator simulator = new Simulator(pool, policies, seed, maxMoves, dealMode);
+            LevelStats[] stats = simulator.runLevels(fromLevel, toLevel, games);
+            System.out.println(LevelStats.header());
+            for (LevelStats s : stats) System.out.println(s.toRow());
+        } finally {
+            pool.shutdown();
+        }
+        long totalGames = (long) games * (toLevel - fromLevel + 1);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("%d games on %d threads in %.1f s (%.0f games/s)%n", totalGames, threads, seconds, totalGames / seconds);
+    }
+
+    static Supplier<PlacementPolicy> policyFactory(String name) {
+        switch (name) {
+            case "greedy": return GreedyPolicy::new;
+            case "random": return RandomPolicy::new;
+            case "solver": return HintPolicy::new;
+            default: throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+    }
+
+    private static String require(String option, String value) {
+        if (value == null) throw new IllegalArgumentException(option + " needs a value");
+        return value;
+    }
+}
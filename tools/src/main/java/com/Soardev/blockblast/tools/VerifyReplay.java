@@ -0,0 +1,41 @@
+package com.Soardev.blockblast.tools;
+
+import com.Soardev.blockblast.core.LevelCatalog;
+import com.Soardev.blockblast.core.Replayer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Re-runs recorded games and checks their final scores. Pull a replay from
+ * a device with
+ *   adb exec-out run-as com.Soardev.blockblast cat files/last_game.bbr > last_game.bbr
+ *
+ * Usage: VerifyReplay [--catalog levels.bin] FILE...   (exit status 1 if any replay diverges)
+ *
+ * Adventure games recorded by the app need the catalog it shipped with.
+ */
+public final class VerifyReplay {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) throw new IllegalArgumentException("Usage: VerifyReplay [--catalog levels.bin] FILE...");
+        LevelCatalog catalog = null;
+        int first = 0;
+        if (args[0].equals("--catalog")) {
+            if (args.length < 2) throw new IllegalArgumentException("--catalog needs a value");
+            catalog = LevelCatalog.wrap(ByteBuffer.wrap(Files.readAllBytes(Paths.get(args[1]))));
+            first = 2;
+        }
+        boolean allMatch = true;
+        for (int i = first; i < args.length; i++) {
+            String path = args[i];
+            byte[] data = Files.readAllBytes(Paths.get(path));
+            Replayer.Result result = Replayer.verify(data, catalog);
+            System.out.println(path + " (" + data.length + " bytes, " + result.durationMillis / 1000 + " s played): " + result);
+            allMatch &= result.matches;
+        }
+        if (!allMatch) System.exit(1);
+    }
+}